@@ -0,0 +1,301 @@
+/**
+ * The Attacks class holds precomputed attack tables shared by Board and BitBoard.
+ * Knights, kings and pawns always attack the same squares from a square, so they have one table entry per square.
+ * Sliding pieces use magic bitboards: the blockers on a piece's rays are masked out of the occupancy,
+ * multiplied by a magic number and shifted, which gives a unique index into a table of attack sets.
+ * Rook and bishop attacks are then a single table lookup, and queens use both tables.
+ * Squares are numbered row * 8 + col, with row 0 being black's back rank.
+ * @author Allen Jue
+ * 10/18/2026
+ */
+
+public class Attacks {
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final long[][] ROOK_TABLE = new long[64][];
+    private static final long[][] BISHOP_TABLE = new long[64][];
+    private static final long[] KNIGHT_TABLE = new long[64];
+    private static final long[] KING_TABLE = new long[64];
+    // PAWN_TABLE[0] is white pawns, PAWN_TABLE[1] is black pawns
+    private static final long[][] PAWN_TABLE = new long[2][64];
+    private static final int[] KNIGHT_ROWS = new int[] {-2, -2, -1, -1, 1, 1, 2, 2};
+    private static final int[] KNIGHT_COLS = new int[] {-1, 1, -2, 2, -2, 2, -1, 1};
+    private static final int[] KING_ROWS = new int[] {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] KING_COLS = new int[] {-1, 0, 1, -1, 1, -1, 0, 1};
+    // squares strictly between two squares on the same row, column or diagonal, 0 if they are not aligned
+    private static final long[][] BETWEEN = new long[64][64];
+    // magic numbers found once by a random search, each maps every blocker subset of its square to its own index
+    private static final long[] ROOK_MAGICS = new long[] {
+        0x1580004000802010L, 0xA040100040002005L, 0x130008110041A000L, 0x25000410000900E1L,
+        0x0280080080022C00L, 0x4500081204000700L, 0x0200008104020008L, 0x0200002044120081L,
+        0x0000800098204000L, 0x0008804008802000L, 0x0200802000801000L, 0x0400800800100081L,
+        0x2000800800040080L, 0x0040808002000400L, 0x0A01000200010004L, 0x0A0600010400804AL,
+        0x0200410021008004L, 0x0008444000201001L, 0x1830008080200010L, 0xAC08008010000880L,
+        0x060A020008201004L, 0x40C6008100040080L, 0x0080010100040200L, 0x0050020004009345L,
+        0x0000400280048021L, 0x0200400880200080L, 0x8415044100200010L, 0x0000100100210008L,
+        0x0208080080040080L, 0x0800020080800400L, 0xA004020400081001L, 0x4881000300118062L,
+        0x2100224001800080L, 0x0840010083004020L, 0x1081811008802000L, 0x0A00100080800800L,
+        0x0200080181801400L, 0x2006800400800200L, 0x1048480104002210L, 0x000001104A000384L,
+        0x0800400080208002L, 0x024140201000C000L, 0x200D044020010012L, 0xA401021000210008L,
+        0x0A01000800050010L, 0x8010040002008080L, 0x0004021008040001L, 0x0028004400820021L,
+        0x4820204000800080L, 0x4040208100400100L, 0xA403042000184300L, 0x2450000802815080L,
+        0x0402110004080100L, 0x000200281C100600L, 0x0014010810820400L, 0x0120240040810200L,
+        0x0800420022108502L, 0x4000122841020082L, 0x0092008208104122L, 0x200101100020C409L,
+        0x0009000208000411L, 0x0002001004010802L, 0x800C012200904804L, 0x1805008041002402L
+    };
+    private static final long[] BISHOP_MAGICS = new long[] {
+        0x151010A109042600L, 0x0024184800408000L, 0x5008520402300088L, 0x0004041080060800L,
+        0x4124042000220280L, 0x0001010841C00120L, 0x0046280104100002L, 0x003414841002104AL,
+        0x0011420801010200L, 0x2000040484044206L, 0x0120420200450002L, 0x0490044100200006L,
+        0x1200440420200800L, 0x0148490109400100L, 0x4086040884042220L, 0x00120100880402E0L,
+        0x0041081010610102L, 0x14D0042002220840L, 0x1001038208020880L, 0x812040540100220AL,
+        0x8009000820080100L, 0x2002000088014808L, 0x0104040084010820L, 0x8000540080441000L,
+        0x0020200051220205L, 0xA014500004100090L, 0x0180240028004401L, 0x0082080004004008L,
+        0x6A05001093004008L, 0x0010002001040100L, 0x0008008102020180L, 0x8002004400250804L,
+        0x2001084011200482L, 0x1208822080088800L, 0x2014042808040040L, 0x00000E8081080200L,
+        0x0460108400008020L, 0x02E0084100A08090L, 0x0110014100120081L, 0x0025026280220200L,
+        0x0040D00808012001L, 0x0000480210040840L, 0x0232041044008810L, 0x6012082011100800L,
+        0x1130400102100500L, 0x22C0010102080101L, 0x0004145092001400L, 0x0010212100240100L,
+        0x6002108444401050L, 0x0049010801040004L, 0x0005820042220001L, 0x000000020A020006L,
+        0x2240292803040829L, 0x0041A00A92A20010L, 0x01A2280103041808L, 0x001A304401144800L,
+        0x4022A48200B04000L, 0x00020088841002D0L, 0x000A000021080838L, 0xA800000000208800L,
+        0x0000030020202484L, 0x0460002812084611L, 0x4008101010012048L, 0x0448810410840100L
+    };
+    // 64 minus the number of relevant occupancy bits of each square
+    private static final int[] ROOK_SHIFTS = new int[] {
+        52, 53, 53, 53, 53, 53, 53, 52,
+        53, 54, 54, 54, 54, 54, 54, 53,
+        53, 54, 54, 54, 54, 54, 54, 53,
+        53, 54, 54, 54, 54, 54, 54, 53,
+        53, 54, 54, 54, 54, 54, 54, 53,
+        53, 54, 54, 54, 54, 54, 54, 53,
+        53, 54, 54, 54, 54, 54, 54, 53,
+        52, 53, 53, 53, 53, 53, 53, 52
+    };
+    private static final int[] BISHOP_SHIFTS = new int[] {
+        58, 59, 59, 59, 59, 59, 59, 58,
+        59, 59, 59, 59, 59, 59, 59, 59,
+        59, 59, 57, 57, 57, 57, 59, 59,
+        59, 59, 57, 55, 55, 57, 59, 59,
+        59, 59, 57, 55, 55, 57, 59, 59,
+        59, 59, 57, 57, 57, 57, 59, 59,
+        59, 59, 59, 59, 59, 59, 59, 59,
+        58, 59, 59, 59, 59, 59, 59, 58
+    };
+
+    static {
+        for(int sq = 0; sq < 64; sq++) {
+            ROOK_MASKS[sq] = relevantMask(sq, Piece.LATERAL_DIR);
+            BISHOP_MASKS[sq] = relevantMask(sq, Piece.DIAGONAL_DIR);
+            ROOK_TABLE[sq] = fillTable(sq, Piece.LATERAL_DIR, ROOK_MASKS[sq], ROOK_MAGICS[sq], ROOK_SHIFTS[sq]);
+            BISHOP_TABLE[sq] = fillTable(sq, Piece.DIAGONAL_DIR, BISHOP_MASKS[sq], BISHOP_MAGICS[sq], BISHOP_SHIFTS[sq]);
+            KNIGHT_TABLE[sq] = jumpAttacks(sq, KNIGHT_ROWS, KNIGHT_COLS);
+            KING_TABLE[sq] = jumpAttacks(sq, KING_ROWS, KING_COLS);
+            // white pawns move towards row 0 and black pawns towards row 7
+            PAWN_TABLE[0][sq] = jumpAttacks(sq, new int[] {-1, -1}, new int[] {-1, 1});
+            PAWN_TABLE[1][sq] = jumpAttacks(sq, new int[] {1, 1}, new int[] {-1, 1});
+        }
+        for(int a = 0; a < 64; a++) {
+            for(int b = 0; b < 64; b++) {
+                BETWEEN[a][b] = betweenSquares(a, b);
+            }
+        }
+    }
+
+
+    /**
+     * Gets the rook attacks from a square
+     * @param sq square of the rook
+     * @param occ occupied squares
+     * @return squares attacked laterally, including the first blocker of each ray
+     */
+    public static long rookAttacks(int sq, long occ) {
+        return ROOK_TABLE[sq][(int)(((occ & ROOK_MASKS[sq]) * ROOK_MAGICS[sq]) >>> ROOK_SHIFTS[sq])];
+    }
+
+
+    /**
+     * Gets the bishop attacks from a square
+     * @param sq square of the bishop
+     * @param occ occupied squares
+     * @return squares attacked diagonally, including the first blocker of each ray
+     */
+    public static long bishopAttacks(int sq, long occ) {
+        return BISHOP_TABLE[sq][(int)(((occ & BISHOP_MASKS[sq]) * BISHOP_MAGICS[sq]) >>> BISHOP_SHIFTS[sq])];
+    }
+
+
+    /**
+     * Gets the queen attacks from a square
+     * @param sq square of the queen
+     * @param occ occupied squares
+     * @return squares attacked laterally and diagonally
+     */
+    public static long queenAttacks(int sq, long occ) {
+        return rookAttacks(sq, occ) | bishopAttacks(sq, occ);
+    }
+
+
+    /**
+     * Gets the knight attacks from a square
+     * @param sq square of the knight
+     * @return squares a knight on sq attacks
+     */
+    public static long knightAttacks(int sq) {
+        return KNIGHT_TABLE[sq];
+    }
+
+
+    /**
+     * Gets the king attacks from a square
+     * @param sq square of the king
+     * @return squares a king on sq attacks
+     */
+    public static long kingAttacks(int sq) {
+        return KING_TABLE[sq];
+    }
+
+
+    /**
+     * Gets the pawn attacks from a square. A square is attacked by an enemy pawn exactly when
+     * an ally pawn on it would attack that enemy pawn, so this also finds the pawns attacking a square
+     * @param sq square of the pawn
+     * @param white true for a white pawn (white pawns move towards row 0)
+     * @return squares a pawn on sq attacks
+     */
+    public static long pawnAttacks(int sq, boolean white) {
+        return PAWN_TABLE[white ? 0 : 1][sq];
+    }
+
+
+    /**
+     * Gets the squares between two squares, used for the rays of pins and checks
+     * @param a first square
+     * @param b second square
+     * @return squares strictly between a and b if they share a row, column or diagonal, otherwise 0
+     */
+    public static long between(int a, int b) {
+        return BETWEEN[a][b];
+    }
+
+
+    /**
+     * Fills in the attack table of a square
+     * @param sq square index
+     * @param dir directional array of the sliding piece
+     * @param mask relevant occupancy mask of sq
+     * @param magic magic number of sq
+     * @param shift index shift of sq
+     * @return attack table for sq
+     */
+    private static long[] fillTable(int sq, int[] dir, long mask, long magic, int shift) {
+        long[] table = new long[1 << (64 - shift)];
+        // enumerate every subset of the mask with the carry-rippler trick
+        long subset = 0L;
+        do {
+            table[(int)((subset * magic) >>> shift)] = slidingAttacks(sq, subset, dir);
+            subset = (subset - mask) & mask;
+        } while(subset != 0L);
+        return table;
+    }
+
+
+    /**
+     * Gets the squares whose occupancy matters to a sliding piece. The last square of each
+     * ray is left out since a piece there can not block anything behind it
+     * @param sq square of the sliding piece
+     * @param dir directional array, consecutive entries are the row and column change of a ray
+     * @return relevant occupancy mask
+     */
+    private static long relevantMask(int sq, int[] dir) {
+        long mask = 0L;
+        for(int k = 0; k < dir.length - 1; k++) {
+            int row = (sq >> 3) + dir[k];
+            int col = (sq & 7) + dir[k + 1];
+            while(inBounds(row + dir[k], col + dir[k + 1])) {
+                mask |= 1L << (row * 8 + col);
+                row += dir[k];
+                col += dir[k + 1];
+            }
+        }
+        return mask;
+    }
+
+
+    /**
+     * Gets the squares a sliding piece attacks by walking along each ray. Only used to fill in the tables
+     * @param sq square of the sliding piece
+     * @param occ occupied squares that block the slide
+     * @param dir directional array, consecutive entries are the row and column change of a ray
+     * @return squares attacked along the directions, including the first blocker of each ray
+     */
+    private static long slidingAttacks(int sq, long occ, int[] dir) {
+        long attacks = 0L;
+        for(int k = 0; k < dir.length - 1; k++) {
+            int row = (sq >> 3) + dir[k];
+            int col = (sq & 7) + dir[k + 1];
+            while(inBounds(row, col)) {
+                long bit = 1L << (row * 8 + col);
+                attacks |= bit;
+                if((occ & bit) != 0) {
+                    break;
+                }
+                row += dir[k];
+                col += dir[k + 1];
+            }
+        }
+        return attacks;
+    }
+
+
+    /**
+     * Gets the squares a jumping piece attacks. Only used to fill in the tables
+     * @param sq square of the piece
+     * @param rows row change of each jump
+     * @param cols column change of each jump
+     * @return squares on the board reached by the jumps
+     */
+    private static long jumpAttacks(int sq, int[] rows, int[] cols) {
+        long attacks = 0L;
+        for(int k = 0; k < rows.length; k++) {
+            int row = (sq >> 3) + rows[k];
+            int col = (sq & 7) + cols[k];
+            if(inBounds(row, col)) {
+                attacks |= 1L << (row * 8 + col);
+            }
+        }
+        return attacks;
+    }
+
+
+    /**
+     * Walks from one square towards another to find the squares between them. Only used to fill in BETWEEN
+     * @param a first square
+     * @param b second square
+     * @return squares strictly between a and b, 0 if they are not aligned
+     */
+    private static long betweenSquares(int a, int b) {
+        int rowChange = (b >> 3) - (a >> 3);
+        int colChange = (b & 7) - (a & 7);
+        if(a == b || (rowChange != 0 && colChange != 0 && Math.abs(rowChange) != Math.abs(colChange))) {
+            return 0L;
+        }
+        int step = Integer.signum(rowChange) * 8 + Integer.signum(colChange);
+        long squares = 0L;
+        for(int sq = a + step; sq != b; sq += step) {
+            squares |= 1L << sq;
+        }
+        return squares;
+    }
+
+
+    /**
+     * Gets whether or not a row and column are on the board
+     * @param row row of the square
+     * @param col column of the square
+     * @return true if the square is on the board
+     */
+    private static boolean inBounds(int row, int col) {
+        return row >= 0 && row < 8 && col >= 0 && col < 8;
+    }
+}
@@ -45,9 +45,7 @@ public class Bishop extends Piece {
     public List<int[]> getMoves (Board b, List<int[]> moves, Piece p, int i, int j) {
         if(correctTurn(b)) {
             // bishops can move diagonally until another piece to capture or the end of the board
-            for(int k = 0; k < DIAGONAL_DIR.length - 1; k++) {
-                getDirMoves(b, moves, p, DIAGONAL_DIR[k], DIAGONAL_DIR[k + 1], i, j);
-            }
+            getAttackMoves(b, moves, p, Attacks.bishopAttacks(i * 8 + j, b.getOccupied()), i, j);
         }
         return moves;
     }
@@ -0,0 +1,1323 @@
+/**
+ * The BitBoard class is a second position backend for the chess engine. Instead of a 2D matrix of
+ * Piece objects it keeps twelve 64-bit piece bitboards (one per piece type and color) plus occupancy
+ * masks, so attack tests and move generation are a handful of mask operations instead of nested loops.
+ * Sliding attacks come from the magic bitboard tables in Attacks.
+ * It exposes the same operations as Board (move, undoMove, generateAllMoves, inCheck, generateFEN) so
+ * the search and the gui can run on either representation.
+ * Squares are numbered row * 8 + col, with row 0 being black's back rank, matching Board's coordinates.
+ * @author Allen Jue
+ * 10/18/2026
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class BitBoard {
+    public static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    // piece types, black pieces are offset by BLACK_OFFSET
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+    public static final int BLACK_OFFSET = 6;
+    public static final int EMPTY = -1;
+    private static final String PIECE_CHARS = "PNBRQKpnbrqk";
+    // castling right bits
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_B = FILE_A << 1;
+    public static final long FILE_G = FILE_A << 6;
+    public static final long FILE_H = FILE_A << 7;
+    // row 2 and row 5 are the squares a pawn lands on after a single push from its starting row
+    private static final long WHITE_PUSH_ROW = 0xFFL << 40;
+    private static final long BLACK_PUSH_ROW = 0xFFL << 16;
+    private static final long PROMOTION_ROWS = 0xFFL | (0xFFL << 56);
+    // castling rights that survive a move from or to a square
+    private static final int[] CASTLE_MASK = new int[64];
+    static {
+        for(int sq = 0; sq < 64; sq++) {
+            CASTLE_MASK[sq] = 15;
+        }
+        CASTLE_MASK[0] &= ~BLACK_QUEENSIDE;
+        CASTLE_MASK[7] &= ~BLACK_KINGSIDE;
+        CASTLE_MASK[4] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLE_MASK[56] &= ~WHITE_QUEENSIDE;
+        CASTLE_MASK[63] &= ~WHITE_KINGSIDE;
+        CASTLE_MASK[60] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+    }
+    private final long[] pieces = new long[12];
+    // occupancy[0] is white, occupancy[1] is black
+    private final long[] occupancy = new long[2];
+    private long occupied;
+    private final int[] squares = new int[64];
+    private boolean whiteTurn;
+    private int castling;
+    private int enPassant;
+    private int halfMoves;
+    private int ply;
+    // Zobrist key of the position, updated incrementally as pieces and rights change
+    private long hash;
+    // more than enough room for the legal moves of any position (at most 218)
+    public static final int MAX_MOVES = 256;
+    // one move buffer per ply, indexed by the number of moves made since the position was loaded
+    public static final int MAX_PLY = 128;
+    private int[][] moveStack = new int[MAX_PLY][MAX_MOVES];
+    // moves are generated on demand, a ply's count is NOT_GENERATED until they are asked for
+    private int[] moveCounts = new int[MAX_PLY];
+    private static final int NOT_GENERATED = -1;
+    private int height;
+    // undo records, RECORD_SIZE entries per ply: the encoded move and the castling rights,
+    // en passant square, half moves and hash from before the move
+    private static final int MOVE = 0;
+    private static final int CASTLING = 1;
+    private static final int EN_PASSANT = 2;
+    private static final int HALF_MOVES = 3;
+    private static final int HASH = 4;
+    private static final int RECORD_SIZE = 5;
+    private long[] undoStack = new long[MAX_PLY * RECORD_SIZE];
+    // squares attacked by each side, two entries per ply like the move buffers. They are built the first time
+    // they are needed in a position, and attacksValid holds a bit per side for the maps that are up to date
+    private long[] attackMaps = new long[MAX_PLY * 2];
+    private int[] attacksValid = new int[MAX_PLY];
+    // pins and checks of the side to move, found once per position before its moves are filtered.
+    // Non-king moves have to land in checkMask, and a pinned piece has to stay on its pin ray
+    private long checkers;
+    private long checkMask;
+    private long pinned;
+    private final long[] pinRays = new long[64];
+    // room for the moves of a single piece, used to check moves that were not generated in this position
+    private final int[] pieceMoves = new int[32];
+
+
+    /**
+     * Initialize a bit board with the standard starting position
+     */
+    public BitBoard() {
+        this(START_FEN);
+    }
+
+
+    /**
+     * Initialize a bit board from a FEN
+     * @param fen position to be loaded
+     */
+    public BitBoard(String fen) {
+        initializeWithFen(fen);
+    }
+
+
+    /**
+     * Constructor for a bit board that creates a copy of an existing bit board
+     * @param b bit board to be copied
+     */
+    public BitBoard(BitBoard b) {
+        System.arraycopy(b.pieces, 0, pieces, 0, pieces.length);
+        System.arraycopy(b.occupancy, 0, occupancy, 0, occupancy.length);
+        System.arraycopy(b.squares, 0, squares, 0, squares.length);
+        occupied = b.occupied;
+        whiteTurn = b.whiteTurn;
+        castling = b.castling;
+        enPassant = b.enPassant;
+        halfMoves = b.halfMoves;
+        ply = b.ply;
+        hash = b.hash;
+        height = b.height;
+        ensureCapacity();
+        System.arraycopy(b.undoStack, 0, undoStack, 0, height * RECORD_SIZE);
+        moveCounts[height] = NOT_GENERATED;
+        attacksValid[height] = 0;
+    }
+
+
+    /**
+     * Resets the bit board to the starting position
+     */
+    public void reset() {
+        initializeWithFen(START_FEN);
+    }
+
+
+    /**
+     * Initializes a bit board with a fen
+     * @param fen initializing FEN
+     */
+    private void initializeWithFen(String fen) {
+        String[] parsedFen = fen.trim().split("\\s+");
+        if(parsedFen.length < 4) {
+            throw new IllegalArgumentException("FEN is not formatted correctly");
+        }
+        for(int i = 0; i < pieces.length; i++) {
+            pieces[i] = 0L;
+        }
+        occupancy[0] = 0L;
+        occupancy[1] = 0L;
+        occupied = 0L;
+        hash = 0L;
+        for(int sq = 0; sq < 64; sq++) {
+            squares[sq] = EMPTY;
+        }
+        placePieces(parsedFen[0]);
+        whiteTurn = parsedFen[1].equals("w");
+        castling = 0;
+        for(char c : parsedFen[2].toCharArray()) {
+            switch(c) {
+                case 'K': castling |= WHITE_KINGSIDE; break;
+                case 'Q': castling |= WHITE_QUEENSIDE; break;
+                case 'k': castling |= BLACK_KINGSIDE; break;
+                case 'q': castling |= BLACK_QUEENSIDE; break;
+                default: break;
+            }
+        }
+        enPassant = parsedFen[3].equals("-") ? EMPTY : processNotation(parsedFen[3]);
+        hash ^= Zobrist.castling(castling) ^ Zobrist.enPassant(enPassant);
+        if(!whiteTurn) {
+            hash ^= Zobrist.side();
+        }
+        halfMoves = parsedFen.length > 4 ? Integer.parseInt(parsedFen[4]) : 0;
+        int fullMoves = parsedFen.length > 5 ? Integer.parseInt(parsedFen[5]) : 1;
+        // ply follows Board's convention: starts at 1 and full moves = (ply - 1) / 2 + 1
+        ply = (fullMoves - 1) * 2 + (whiteTurn ? 1 : 2);
+        height = 0;
+        moveCounts[height] = NOT_GENERATED;
+        attacksValid[height] = 0;
+    }
+
+
+    /**
+     * Place the pieces based on the first field of the FEN
+     * @param placement arrangement in FEN
+     */
+    private void placePieces(String placement) {
+        String[] rows = placement.split("/");
+        if(rows.length != 8) {
+            throw new IllegalArgumentException("FEN is not formatted correctly: " + placement);
+        }
+        for(int r = 0; r < rows.length; r++) {
+            int c = 0;
+            for(char ch : rows[r].toCharArray()) {
+                if(Character.isDigit(ch)) {
+                    c += ch - '0';
+                } else {
+                    int piece = PIECE_CHARS.indexOf(ch);
+                    if(piece < 0 || c > 7) {
+                        throw new IllegalArgumentException("Unexpected value in FEN: " + ch);
+                    }
+                    addPiece(piece, r * 8 + c);
+                    c++;
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Gets the square index from algebraic notation
+     * @param notation algebraic notation square
+     * @return row * 8 + col of the square
+     */
+    public static int processNotation(String notation) {
+        if(notation.length() != 2 || notation.charAt(0) < 'a' || notation.charAt(0) > 'h'
+                || notation.charAt(1) < '1' || notation.charAt(1) > '8') {
+            throw new IllegalArgumentException("Incorrect format of algebraic notation: " + notation);
+        }
+        int row = 8 - (notation.charAt(1) - '0');
+        int col = notation.charAt(0) - 'a';
+        return row * 8 + col;
+    }
+
+
+    /**
+     * Gets the algebraic notation of a square index
+     * @param sq square index
+     * @return the algebraic notation of sq
+     */
+    public static String processSquare(int sq) {
+        return "" + (char)('a' + (sq & 7)) + (8 - (sq >> 3));
+    }
+
+
+    /**
+     * Gets the color (0 is white, 1 is black) of a piece code
+     * @param piece piece code
+     * @return 0 if white, 1 if black
+     */
+    private static int colorOf(int piece) {
+        return piece < BLACK_OFFSET ? 0 : 1;
+    }
+
+
+    /**
+     * Puts a piece on an empty square
+     * @param piece piece code
+     * @param sq square index
+     */
+    private void addPiece(int piece, int sq) {
+        long bit = 1L << sq;
+        pieces[piece] |= bit;
+        occupancy[colorOf(piece)] |= bit;
+        occupied |= bit;
+        squares[sq] = piece;
+        hash ^= Zobrist.piece(piece, sq);
+    }
+
+
+    /**
+     * Removes a piece from a square
+     * @param piece piece code
+     * @param sq square index
+     */
+    private void removePiece(int piece, int sq) {
+        long bit = ~(1L << sq);
+        pieces[piece] &= bit;
+        occupancy[colorOf(piece)] &= bit;
+        occupied &= bit;
+        squares[sq] = EMPTY;
+        hash ^= Zobrist.piece(piece, sq);
+    }
+
+
+    /**
+     * Moves a piece between two squares. The target square must be empty
+     * @param piece piece code
+     * @param from starting square
+     * @param to target square
+     */
+    private void shiftPiece(int piece, int from, int to) {
+        long change = (1L << from) | (1L << to);
+        pieces[piece] ^= change;
+        occupancy[colorOf(piece)] ^= change;
+        occupied ^= change;
+        squares[from] = EMPTY;
+        squares[to] = piece;
+        hash ^= Zobrist.piece(piece, from) ^ Zobrist.piece(piece, to);
+    }
+
+
+    /**
+     * Gets the knight attacks of every knight in a bitboard
+     * @param knights bitboard of knights
+     * @return squares attacked by the knights
+     */
+    public static long knightAttacks(long knights) {
+        long l1 = (knights >>> 1) & ~FILE_H;
+        long l2 = (knights >>> 2) & ~(FILE_G | FILE_H);
+        long r1 = (knights << 1) & ~FILE_A;
+        long r2 = (knights << 2) & ~(FILE_A | FILE_B);
+        long h1 = l1 | r1;
+        long h2 = l2 | r2;
+        return (h1 << 16) | (h1 >>> 16) | (h2 << 8) | (h2 >>> 8);
+    }
+
+
+    /**
+     * Gets the king attacks of every king in a bitboard
+     * @param kings bitboard of kings
+     * @return squares attacked by the kings
+     */
+    public static long kingAttacks(long kings) {
+        long attacks = ((kings << 1) & ~FILE_A) | ((kings >>> 1) & ~FILE_H);
+        long row = kings | attacks;
+        return attacks | (row << 8) | (row >>> 8);
+    }
+
+
+    /**
+     * Gets the pawn attacks of every pawn in a bitboard
+     * @param pawns bitboard of pawns
+     * @param white true if the pawns are white (white pawns move towards row 0)
+     * @return squares attacked by the pawns
+     */
+    public static long pawnAttacks(long pawns, boolean white) {
+        long forward = white ? pawns >>> 8 : pawns << 8;
+        return ((forward << 1) & ~FILE_A) | ((forward >>> 1) & ~FILE_H);
+    }
+
+
+    /**
+     * Gets if a square is attacked by any piece of a color
+     * @param sq square to be tested
+     * @param byWhite true if looking for white attackers
+     * @return true if an enemy piece attacks sq
+     */
+    public boolean isAttacked(int sq, boolean byWhite) {
+        int offset = byWhite ? 0 : BLACK_OFFSET;
+        // a square is attacked by a pawn if a pawn of the other color on sq would attack it
+        if((Attacks.pawnAttacks(sq, !byWhite) & pieces[PAWN + offset]) != 0
+                || (Attacks.knightAttacks(sq) & pieces[KNIGHT + offset]) != 0
+                || (Attacks.kingAttacks(sq) & pieces[KING + offset]) != 0) {
+            return true;
+        }
+        long queens = pieces[QUEEN + offset];
+        return (Attacks.bishopAttacks(sq, occupied) & (pieces[BISHOP + offset] | queens)) != 0
+                || (Attacks.rookAttacks(sq, occupied) & (pieces[ROOK + offset] | queens)) != 0;
+    }
+
+
+    /**
+     * Gets every square attacked by a color in the current position. The map is built once per position
+     * and kept for the ply, so it is still there after the moves searched below it are undone.
+     * The enemy king does not block sliding pieces, since it can not step back along the ray of a slider
+     * @param byWhite true for the squares white attacks
+     * @return attacked squares
+     */
+    public long attackedBy(boolean byWhite) {
+        int side = byWhite ? 0 : 1;
+        if((attacksValid[height] & (1 << side)) == 0) {
+            attackMaps[height * 2 + side] = computeAttacks(byWhite);
+            attacksValid[height] |= 1 << side;
+        }
+        return attackMaps[height * 2 + side];
+    }
+
+
+    /**
+     * Builds the attack map of a color. Pawns, knights and kings are done a whole bitboard at a time,
+     * sliding pieces one at a time from the magic tables
+     * @param byWhite true for the squares white attacks
+     * @return attacked squares
+     */
+    private long computeAttacks(boolean byWhite) {
+        int offset = byWhite ? 0 : BLACK_OFFSET;
+        long occ = occupied & ~pieces[byWhite ? KING + BLACK_OFFSET : KING];
+        long attacks = pawnAttacks(pieces[PAWN + offset], byWhite) | knightAttacks(pieces[KNIGHT + offset])
+                | kingAttacks(pieces[KING + offset]);
+        long queens = pieces[QUEEN + offset];
+        for(long bb = pieces[BISHOP + offset] | queens; bb != 0; bb &= bb - 1) {
+            attacks |= Attacks.bishopAttacks(Long.numberOfTrailingZeros(bb), occ);
+        }
+        for(long bb = pieces[ROOK + offset] | queens; bb != 0; bb &= bb - 1) {
+            attacks |= Attacks.rookAttacks(Long.numberOfTrailingZeros(bb), occ);
+        }
+        return attacks;
+    }
+
+
+    /**
+     * Gets the square of a color's king
+     * @param white color of the king
+     * @return square index of the king
+     */
+    public int kingSquare(boolean white) {
+        return Long.numberOfTrailingZeros(pieces[white ? KING : KING + BLACK_OFFSET]);
+    }
+
+
+    /**
+     * Gets if a color has a piece other than pawns and its king. Without one zugzwang is common,
+     * so the search does not try null moves
+     * @param white color of the pieces
+     * @return true if the color has a knight, bishop, rook or queen
+     */
+    public boolean hasNonPawnMaterial(boolean white) {
+        int offset = white ? 0 : BLACK_OFFSET;
+        return (pieces[KNIGHT + offset] | pieces[BISHOP + offset] | pieces[ROOK + offset] | pieces[QUEEN + offset]) != 0;
+    }
+
+
+    /**
+     * Gets if a move of the side to move checks the enemy king, without making the move. The moved piece may
+     * check from its target square, or it may uncover a check from a bishop, rook or queen behind it
+     * @param move encoded move of the side to move
+     * @return true if the enemy king is in check after the move
+     */
+    public boolean givesCheck(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        long kingBit = pieces[whiteTurn ? KING + BLACK_OFFSET : KING];
+        int king = Long.numberOfTrailingZeros(kingBit);
+        long occ = (occupied & ~(1L << from)) | (1L << to);
+        if(Move.hasFlag(move, Move.CASTLE)) {
+            // only the rook can check, from the square the king passed over
+            int passed = (to & 7) == 6 ? to - 1 : to + 1;
+            int corner = (to & 7) == 6 ? to + 1 : to - 2;
+            occ = (occ & ~(1L << corner)) | (1L << passed);
+            return (Attacks.rookAttacks(passed, occ) & kingBit) != 0;
+        }
+        if(Move.hasFlag(move, Move.EN_PASSANT)) {
+            occ &= ~(1L << ((from & ~7) | (to & 7)));
+        }
+        long attacks;
+        switch(Move.isPromotion(move) ? Move.promotion(move) : Move.piece(move) % BLACK_OFFSET) {
+        case PAWN:
+            attacks = Attacks.pawnAttacks(to, whiteTurn);
+            break;
+        case KNIGHT:
+            attacks = Attacks.knightAttacks(to);
+            break;
+        case BISHOP:
+            attacks = Attacks.bishopAttacks(to, occ);
+            break;
+        case ROOK:
+            attacks = Attacks.rookAttacks(to, occ);
+            break;
+        case QUEEN:
+            attacks = Attacks.queenAttacks(to, occ);
+            break;
+        default:
+            // a king can not give check itself
+            attacks = 0L;
+            break;
+        }
+        if((attacks & kingBit) != 0) {
+            return true;
+        }
+        int offset = whiteTurn ? 0 : BLACK_OFFSET;
+        long queens = pieces[QUEEN + offset];
+        long sliders = (Attacks.bishopAttacks(king, occ) & (pieces[BISHOP + offset] | queens))
+                | (Attacks.rookAttacks(king, occ) & (pieces[ROOK + offset] | queens));
+        // the moved piece is still on its starting square in the bitboards, it was checked above
+        return (sliders & ~(1L << from)) != 0;
+    }
+
+
+    /**
+     * Gets if a player is in check
+     * @param color of current player
+     * @return true if in check
+     */
+    public boolean inCheck(boolean color) {
+        return (attackedBy(!color) & pieces[color ? KING : KING + BLACK_OFFSET]) != 0;
+    }
+
+
+    /**
+     * Generates every legal move for the side to move. Returns true if there is at least one move
+     * @return number of legal moves > 0
+     */
+    public boolean generateAllMoves() {
+        // generating can grow moveCounts, so only look the array up once the moves are counted
+        int count = generateLegalMoves(moveStack[height]);
+        moveCounts[height] = count;
+        return count > 0;
+    }
+
+
+    /**
+     * Generates the moves of the current ply if they have not been generated since the position changed
+     */
+    private void ensureMoves() {
+        if(moveCounts[height] == NOT_GENERATED) {
+            generateAllMoves();
+        }
+    }
+
+
+    /**
+     * Gets if the side to move has any legal move. If the moves have not been generated yet,
+     * pseudo-legal moves are tested one at a time
+     * and the search stops at the first legal one, so this is much cheaper than generating every
+     * legal move when only checkmate and stalemate matter
+     * @return true if there is at least one legal move
+     */
+    public boolean hasLegalMove() {
+        if(moveCounts[height] != NOT_GENERATED) {
+            return moveCounts[height] > 0;
+        }
+        // the buffer of this ply is free to use, it is filled in again if all moves are generated
+        int[] moves = moveStack[height];
+        int king = kingSquare(whiteTurn);
+        int pseudoCount = generateCandidates(moves, king);
+        for(int i = 0; i < pseudoCount; i++) {
+            if(isLegal(moves[i], king)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Fills a buffer with every legal move for the side to move. Pseudo-legal moves are generated
+     * straight into the buffer, and the ones that leave the king in check are filtered out in place
+     * using the pins and checks of the position
+     * @param moves buffer of at least MAX_MOVES entries
+     * @return number of legal moves in the buffer
+     */
+    public int generateLegalMoves(int[] moves) {
+        int king = kingSquare(whiteTurn);
+        int pseudoCount = generateCandidates(moves, king);
+        int legalCount = 0;
+        for(int i = 0; i < pseudoCount; i++) {
+            int move = moves[i];
+            if(isLegal(move, king)) {
+                moves[legalCount++] = move;
+            }
+        }
+        return legalCount;
+    }
+
+
+    /**
+     * Finds the pieces checking the king of the side to move and the ally pieces pinned to it.
+     * Enemy sliders are looked up from the king with only enemy pieces as blockers, so a slider
+     * with nothing between it and the king gives check and one with a single ally piece in between pins it
+     * @param king square of the king of the side to move
+     */
+    private void updatePins(int king) {
+        int them = whiteTurn ? BLACK_OFFSET : 0;
+        long own = occupancy[whiteTurn ? 0 : 1];
+        long enemy = occupancy[whiteTurn ? 1 : 0];
+        checkers = (Attacks.knightAttacks(king) & pieces[KNIGHT + them])
+                | (Attacks.pawnAttacks(king, whiteTurn) & pieces[PAWN + them]);
+        pinned = 0L;
+        long queens = pieces[QUEEN + them];
+        long sliders = (Attacks.rookAttacks(king, enemy) & (pieces[ROOK + them] | queens))
+                | (Attacks.bishopAttacks(king, enemy) & (pieces[BISHOP + them] | queens));
+        for(; sliders != 0; sliders &= sliders - 1) {
+            int sq = Long.numberOfTrailingZeros(sliders);
+            long ray = Attacks.between(king, sq);
+            long blockers = ray & occupied;
+            if(blockers == 0) {
+                checkers |= 1L << sq;
+            } else if((blockers & (blockers - 1)) == 0 && (blockers & own) != 0) {
+                pinned |= blockers;
+                pinRays[Long.numberOfTrailingZeros(blockers)] = ray | (1L << sq);
+            }
+        }
+        if(checkers == 0) {
+            checkMask = -1L;
+        } else if((checkers & (checkers - 1)) == 0) {
+            // a single check is answered by capturing the checker or blocking its ray
+            checkMask = checkers | Attacks.between(king, Long.numberOfTrailingZeros(checkers));
+        } else {
+            // only the king can move out of a double check
+            checkMask = 0L;
+        }
+    }
+
+
+    /**
+     * Gets if a pseudo-legal move keeps the king out of check. updatePins has to have been called
+     * for the current position. En passant can uncover a check along the row of both pawns,
+     * so it is the one move that is still made and tested
+     * @param move encoded pseudo-legal move
+     * @param king square of the king of the side to move
+     * @return true if the move is legal
+     */
+    private boolean isLegal(int move, int king) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        if(from == king) {
+            // castles are only generated through safe squares, other king moves must not land on an
+            // attacked square. The attack map already looks through the king
+            return Move.hasFlag(move, Move.CASTLE) || (attackedBy(!whiteTurn) & (1L << to)) == 0;
+        }
+        if(Move.hasFlag(move, Move.EN_PASSANT)) {
+            boolean color = whiteTurn;
+            makeMove(move);
+            // a single square test, the attack map of the position after en passant is not needed again
+            boolean legal = !isAttacked(kingSquare(color), !color);
+            unmakeMove();
+            return legal;
+        }
+        long toBit = 1L << to;
+        return (checkMask & toBit) != 0 && ((pinned & (1L << from)) == 0 || (pinRays[from] & toBit) != 0);
+    }
+
+
+    /**
+     * Fills a buffer with the legal captures for the side to move, including en passant
+     * @param moves buffer of at least MAX_MOVES entries
+     * @return number of legal captures in the buffer
+     */
+    public int generateCaptures(int[] moves) {
+        return generateStage(moves, occupancy[whiteTurn ? 1 : 0]);
+    }
+
+
+    /**
+     * Fills a buffer with the legal moves for the side to move that capture nothing, including castles
+     * and pushes that promote
+     * @param moves buffer of at least MAX_MOVES entries
+     * @return number of legal quiet moves in the buffer
+     */
+    public int generateQuiets(int[] moves) {
+        return generateStage(moves, ~occupied);
+    }
+
+
+    /**
+     * Fills a buffer with the legal captures and queen promotions for the side to move, the moves that
+     * quiescence search looks at. Promotions to other pieces are left out, a queen is almost always better
+     * @param moves buffer of at least MAX_MOVES entries
+     * @return number of legal captures and queen promotions in the buffer
+     */
+    public int generateTactical(int[] moves) {
+        int count = generateStage(moves, occupancy[whiteTurn ? 1 : 0] | (~occupied & PROMOTION_ROWS));
+        int tacticalCount = 0;
+        for(int i = 0; i < count; i++) {
+            int move = moves[i];
+            // other pieces can also move onto the empty squares of the last rows
+            if(Move.isPromotion(move) ? Move.promotion(move) == QUEEN : Move.isCapture(move)) {
+                moves[tacticalCount++] = move;
+            }
+        }
+        return tacticalCount;
+    }
+
+
+    /**
+     * Generates the legal moves that land on a set of squares. Used by the staged move picker, which asks
+     * for the captures first and only generates the quiet moves if none of the captures cut off the search
+     * @param moves buffer of at least MAX_MOVES entries
+     * @param targets the enemy pieces for captures, or the empty squares for quiet moves
+     * @return number of legal moves in the buffer
+     */
+    private int generateStage(int[] moves, long targets) {
+        int king = kingSquare(whiteTurn);
+        updatePins(king);
+        int count = 0;
+        if(checkMask != 0) {
+            count = generatePieceMoves(moves, count, targets & checkMask, checkers == 0 ? -1L : ~pinned);
+        }
+        count = addMoves(moves, count, king, Attacks.kingAttacks(king) & targets);
+        if((targets & occupied) == 0 && checkers == 0) {
+            count = generateCastles(moves, count, king);
+        }
+        int legalCount = 0;
+        for(int i = 0; i < count; i++) {
+            if(isLegal(moves[i], king)) {
+                moves[legalCount++] = moves[i];
+            }
+        }
+        return legalCount;
+    }
+
+
+    /**
+     * Gets if a move is legal in the current position. Used for moves that come from somewhere else than
+     * this position's move generation, like killer moves from a sibling position. The moves of the piece
+     * on the starting square are generated and the move has to be one of them
+     * @param move encoded move
+     * @return true if the move can be played
+     */
+    public boolean isLegalMove(int move) {
+        int from = Move.from(move);
+        int piece = squares[from];
+        if(piece == EMPTY || piece != Move.piece(move) || colorOf(piece) != (whiteTurn ? 0 : 1)) {
+            return false;
+        }
+        long own = occupancy[whiteTurn ? 0 : 1];
+        int count;
+        switch(piece % BLACK_OFFSET) {
+        case PAWN:
+            count = generatePawnMoves(pieceMoves, 0, 1L << from, occupancy[whiteTurn ? 1 : 0], ~own);
+            break;
+        case KING:
+            count = addMoves(pieceMoves, 0, from, Attacks.kingAttacks(from) & ~own);
+            count = generateCastles(pieceMoves, count, from);
+            break;
+        case KNIGHT:
+            count = addMoves(pieceMoves, 0, from, Attacks.knightAttacks(from) & ~own);
+            break;
+        case BISHOP:
+            count = addMoves(pieceMoves, 0, from, Attacks.bishopAttacks(from, occupied) & ~own);
+            break;
+        case ROOK:
+            count = addMoves(pieceMoves, 0, from, Attacks.rookAttacks(from, occupied) & ~own);
+            break;
+        default:
+            count = addMoves(pieceMoves, 0, from, Attacks.queenAttacks(from, occupied) & ~own);
+            break;
+        }
+        for(int i = 0; i < count; i++) {
+            if(pieceMoves[i] == move) {
+                int king = kingSquare(whiteTurn);
+                updatePins(king);
+                return isLegal(move, king);
+            }
+        }
+        return false;
+    }
+
+
+    /**
+     * Finds the pins and checks of the position and generates the moves that could be legal.
+     * In check only evasions are generated
+     * @param moves buffer that encoded moves are written to
+     * @param king square of the king of the side to move
+     * @return number of moves in the buffer
+     */
+    private int generateCandidates(int[] moves, int king) {
+        updatePins(king);
+        return checkers == 0 ? generatePseudoMoves(moves, 0, king) : generateEvasions(moves, 0, king);
+    }
+
+
+    /**
+     * Generates the pseudo-legal moves for the side to move. Moves may leave the king in check
+     * @param moves buffer that encoded moves are written to
+     * @param count number of moves already in the buffer
+     * @param king square of the king of the side to move
+     * @return number of moves in the buffer after generating
+     */
+    private int generatePseudoMoves(int[] moves, int count, int king) {
+        long own = occupancy[whiteTurn ? 0 : 1];
+        count = generatePieceMoves(moves, count, ~own, -1L);
+        count = addMoves(moves, count, king, Attacks.kingAttacks(king) & ~own);
+        return generateCastles(moves, count, king);
+    }
+
+
+    /**
+     * Generates the moves that answer a check. The king can step to any square the enemy does not attack.
+     * Against a single check the other pieces can also capture the checker or block its ray, which are
+     * exactly the squares of checkMask. Pinned pieces can never do either, since they have to stay on
+     * a different ray of the king, and against a double check only the king can move
+     * @param moves buffer that encoded moves are written to
+     * @param count number of moves already in the buffer
+     * @param king square of the king of the side to move
+     * @return number of moves in the buffer after generating
+     */
+    private int generateEvasions(int[] moves, int count, int king) {
+        long own = occupancy[whiteTurn ? 0 : 1];
+        count = addMoves(moves, count, king, Attacks.kingAttacks(king) & ~own & ~attackedBy(!whiteTurn));
+        if(checkMask == 0) {
+            return count;
+        }
+        return generatePieceMoves(moves, count, checkMask, ~pinned);
+    }
+
+
+    /**
+     * Generates the moves of every piece except the king that land on a set of target squares
+     * @param moves buffer that encoded moves are written to
+     * @param count number of moves already in the buffer
+     * @param targets squares the pieces may move to, never including an ally piece
+     * @param movable squares of the pieces that may move
+     * @return number of moves in the buffer after generating
+     */
+    private int generatePieceMoves(int[] moves, int count, long targets, long movable) {
+        int offset = whiteTurn ? 0 : BLACK_OFFSET;
+        long own = occupancy[whiteTurn ? 0 : 1];
+        targets &= ~own;
+        count = generatePawnMoves(moves, count, pieces[PAWN + offset] & movable, occupancy[whiteTurn ? 1 : 0], targets);
+        for(long bb = pieces[KNIGHT + offset] & movable; bb != 0; bb &= bb - 1) {
+            int from = Long.numberOfTrailingZeros(bb);
+            count = addMoves(moves, count, from, Attacks.knightAttacks(from) & targets);
+        }
+        for(long bb = (pieces[BISHOP + offset] | pieces[QUEEN + offset]) & movable; bb != 0; bb &= bb - 1) {
+            int from = Long.numberOfTrailingZeros(bb);
+            count = addMoves(moves, count, from, Attacks.bishopAttacks(from, occupied) & targets);
+        }
+        for(long bb = (pieces[ROOK + offset] | pieces[QUEEN + offset]) & movable; bb != 0; bb &= bb - 1) {
+            int from = Long.numberOfTrailingZeros(bb);
+            count = addMoves(moves, count, from, Attacks.rookAttacks(from, occupied) & targets);
+        }
+        return count;
+    }
+
+
+    /**
+     * Adds a move from a square to every square in a target bitboard
+     * @param moves buffer of encoded moves
+     * @param count number of moves already in the buffer
+     * @param from starting square
+     * @param targets target squares
+     * @return number of moves in the buffer
+     */
+    private int addMoves(int[] moves, int count, int from, long targets) {
+        int piece = squares[from];
+        for(; targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            moves[count++] = Move.encode(from, to, piece, squares[to], 0, Move.NONE);
+        }
+        return count;
+    }
+
+
+    /**
+     * Generates pawn pushes, captures, en passant captures and promotions
+     * @param moves buffer of encoded moves
+     * @param count number of moves already in the buffer
+     * @param pawns bitboard of pawns for the side to move
+     * @param enemy bitboard of enemy pieces
+     * @param targets squares the pawns may move to
+     * @return number of moves in the buffer
+     */
+    private int generatePawnMoves(int[] moves, int count, long pawns, long enemy, long targets) {
+        int forward = whiteTurn ? -8 : 8;
+        long empty = ~occupied;
+        long single = (whiteTurn ? pawns >>> 8 : pawns << 8) & empty;
+        long pushRow = whiteTurn ? WHITE_PUSH_ROW : BLACK_PUSH_ROW;
+        // a double push only needs its first square to be empty, not to be a target
+        long doubled = (whiteTurn ? (single & pushRow) >>> 8 : (single & pushRow) << 8) & empty;
+        count = addPawnMoves(moves, count, single & targets, forward, Move.NONE);
+        count = addPawnMoves(moves, count, doubled & targets, forward * 2, Move.DOUBLE_PUSH);
+        long forwardPawns = whiteTurn ? pawns >>> 8 : pawns << 8;
+        // captures towards column + 1 and column - 1
+        count = addPawnMoves(moves, count, (forwardPawns << 1) & ~FILE_A & enemy & targets, forward + 1, Move.NONE);
+        count = addPawnMoves(moves, count, (forwardPawns >>> 1) & ~FILE_H & enemy & targets, forward - 1, Move.NONE);
+        // en passant is a capture of the pawn behind the square it lands on. Landing there can never block
+        // a check, so it only counts when the captured pawn is a target
+        if(enPassant != EMPTY && (targets & (1L << (enPassant - forward))) != 0) {
+            int pawn = whiteTurn ? PAWN : PAWN + BLACK_OFFSET;
+            int enemyPawn = whiteTurn ? PAWN + BLACK_OFFSET : PAWN;
+            long attackers = Attacks.pawnAttacks(enPassant, !whiteTurn) & pawns;
+            for(; attackers != 0; attackers &= attackers - 1) {
+                moves[count++] = Move.encode(Long.numberOfTrailingZeros(attackers), enPassant, pawn, enemyPawn,
+                        0, Move.EN_PASSANT);
+            }
+        }
+        return count;
+    }
+
+
+    /**
+     * Adds pawn moves given a bitboard of target squares and the offset each pawn moved by.
+     * Moves onto the last row are expanded into the four promotions
+     * @param moves buffer of encoded moves
+     * @param count number of moves already in the buffer
+     * @param targets target squares of the pawns
+     * @param delta target square - starting square
+     * @param flags move flags for every move added
+     * @return number of moves in the buffer
+     */
+    private int addPawnMoves(int[] moves, int count, long targets, int delta, int flags) {
+        int pawn = whiteTurn ? PAWN : PAWN + BLACK_OFFSET;
+        for(; targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            int from = to - delta;
+            if(((1L << to) & PROMOTION_ROWS) != 0) {
+                for(int promotion = QUEEN; promotion >= KNIGHT; promotion--) {
+                    moves[count++] = Move.encode(from, to, pawn, squares[to], promotion, flags);
+                }
+            } else {
+                moves[count++] = Move.encode(from, to, pawn, squares[to], 0, flags);
+            }
+        }
+        return count;
+    }
+
+
+    /**
+     * Generates the castling moves for the side to move. The king may not castle out of,
+     * through, or into check
+     * @param moves buffer of encoded moves
+     * @param count number of moves already in the buffer
+     * @param king square of the king
+     * @return number of moves in the buffer
+     */
+    private int generateCastles(int[] moves, int count, int king) {
+        int kingside = whiteTurn ? WHITE_KINGSIDE : BLACK_KINGSIDE;
+        int queenside = whiteTurn ? WHITE_QUEENSIDE : BLACK_QUEENSIDE;
+        if((castling & (kingside | queenside)) == 0) {
+            return count;
+        }
+        long attacked = attackedBy(!whiteTurn);
+        if((attacked & (1L << king)) != 0) {
+            return count;
+        }
+        int piece = squares[king];
+        long kingsidePath = (1L << (king + 1)) | (1L << (king + 2));
+        if((castling & kingside) != 0 && (occupied & kingsidePath) == 0 && (attacked & kingsidePath) == 0) {
+            moves[count++] = Move.encode(king, king + 2, piece, EMPTY, 0, Move.CASTLE);
+        }
+        long queensidePath = (1L << (king - 1)) | (1L << (king - 2));
+        if((castling & queenside) != 0 && (occupied & (queensidePath | (1L << (king - 3)))) == 0
+                && (attacked & queensidePath) == 0) {
+            moves[count++] = Move.encode(king, king - 2, piece, EMPTY, 0, Move.CASTLE);
+        }
+        return count;
+    }
+
+
+    /**
+     * Moves a piece from prevPo to targPo, using Board's {col, row} coordinates.
+     * Pawns reaching the last row are automatically promoted to queens, like in Board
+     * @param prevPo previous position
+     * @param targPo target position
+     */
+    public void move(int[] prevPo, int[] targPo) {
+        int from = prevPo[1] * 8 + prevPo[0];
+        int to = targPo[1] * 8 + targPo[0];
+        ensureMoves();
+        for(int i = 0; i < moveCounts[height]; i++) {
+            int m = moveStack[height][i];
+            if(Move.from(m) == from && Move.to(m) == to
+                    && (!Move.isPromotion(m) || Move.promotion(m) == QUEEN)) {
+                move(m);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Illegal move: " + processSquare(from) + " to " + processSquare(to)
+                + "\n board state: \n" + this);
+    }
+
+
+    /**
+     * Plays a generated move. The legal moves for the next player are generated once they are asked for
+     * @param move encoded move
+     */
+    public void move(int move) {
+        int piece = squares[Move.from(move)];
+        if(piece == EMPTY || colorOf(piece) != (whiteTurn ? 0 : 1)) {
+            throw new IllegalArgumentException("Moving on the wrong turn: " + Move.toNotation(move)
+                    + "\n board state: \n" + this);
+        }
+        makeMove(move);
+    }
+
+
+    /**
+     * Undoes a singular move if possible. The moves of the ply returned to are left as they were,
+     * so a buffer being iterated by a search stays valid
+     */
+    public void undoMove() {
+        if(height > 0) {
+            unmakeMove();
+        }
+    }
+
+
+    /**
+     * Passes the turn without moving a piece, used by null move pruning in the search. The en passant square
+     * is cleared, since the capture is only possible right after the double push. Undone with undoMove
+     * like any other move
+     */
+    public void makeNullMove() {
+        if(inCheck(whiteTurn)) {
+            throw new IllegalArgumentException("Passing while in check\n board state: \n" + this);
+        }
+        int record = height * RECORD_SIZE;
+        undoStack[record + MOVE] = Move.NONE;
+        undoStack[record + CASTLING] = castling;
+        undoStack[record + EN_PASSANT] = enPassant;
+        undoStack[record + HALF_MOVES] = halfMoves;
+        undoStack[record + HASH] = hash;
+        height++;
+        ensureCapacity();
+        moveCounts[height] = NOT_GENERATED;
+        // no piece moved, so the attack maps of the position are still right
+        attackMaps[height * 2] = attackMaps[height * 2 - 2];
+        attackMaps[height * 2 + 1] = attackMaps[height * 2 - 1];
+        attacksValid[height] = attacksValid[height - 1];
+        hash ^= Zobrist.enPassant(enPassant) ^ Zobrist.side();
+        enPassant = EMPTY;
+        halfMoves++;
+        ply++;
+        whiteTurn = !whiteTurn;
+    }
+
+
+    /**
+     * Makes a move on the bitboards without generating any moves afterwards
+     * @param move encoded move
+     */
+    private void makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int piece = Move.piece(move);
+        int captured = Move.captured(move);
+        int record = height * RECORD_SIZE;
+        undoStack[record + MOVE] = move;
+        undoStack[record + CASTLING] = castling;
+        undoStack[record + EN_PASSANT] = enPassant;
+        undoStack[record + HALF_MOVES] = halfMoves;
+        undoStack[record + HASH] = hash;
+        height++;
+        ensureCapacity();
+        moveCounts[height] = NOT_GENERATED;
+        attacksValid[height] = 0;
+        if(captured != EMPTY) {
+            // en passant captures the pawn that is beside the moving pawn
+            removePiece(captured, Move.hasFlag(move, Move.EN_PASSANT) ? (from & ~7) | (to & 7) : to);
+        }
+        shiftPiece(piece, from, to);
+        if(Move.isPromotion(move)) {
+            removePiece(piece, to);
+            addPiece(Move.promotion(move) + (whiteTurn ? 0 : BLACK_OFFSET), to);
+        }
+        if(Move.hasFlag(move, Move.CASTLE)) {
+            moveCastlingRook(piece, to, false);
+        }
+        hash ^= Zobrist.castling(castling) ^ Zobrist.enPassant(enPassant);
+        enPassant = Move.hasFlag(move, Move.DOUBLE_PUSH) ? (from + to) / 2 : EMPTY;
+        castling &= CASTLE_MASK[from] & CASTLE_MASK[to];
+        hash ^= Zobrist.castling(castling) ^ Zobrist.enPassant(enPassant) ^ Zobrist.side();
+        halfMoves = (piece % BLACK_OFFSET == PAWN || captured != EMPTY) ? 0 : halfMoves + 1;
+        ply++;
+        whiteTurn = !whiteTurn;
+    }
+
+
+    /**
+     * Undoes the last move made on the bitboards without generating any moves afterwards.
+     * Castling rights, en passant, half moves and the hash are restored straight from the undo record
+     */
+    private void unmakeMove() {
+        height--;
+        int record = height * RECORD_SIZE;
+        int move = (int) undoStack[record + MOVE];
+        int from = Move.from(move);
+        int to = Move.to(move);
+        int piece = Move.piece(move);
+        int captured = Move.captured(move);
+        whiteTurn = !whiteTurn;
+        ply--;
+        // a null move only passed the turn
+        if(move != Move.NONE) {
+            if(Move.isPromotion(move)) {
+                removePiece(squares[to], to);
+                addPiece(piece, to);
+            }
+            shiftPiece(piece, to, from);
+            if(Move.hasFlag(move, Move.CASTLE)) {
+                moveCastlingRook(piece, to, true);
+            }
+            if(captured != EMPTY) {
+                addPiece(captured, Move.hasFlag(move, Move.EN_PASSANT) ? (from & ~7) | (to & 7) : to);
+            }
+        }
+        castling = (int) undoStack[record + CASTLING];
+        enPassant = (int) undoStack[record + EN_PASSANT];
+        halfMoves = (int) undoStack[record + HALF_MOVES];
+        hash = undoStack[record + HASH];
+    }
+
+
+    /**
+     * Moves the rook correctly if a castle has occurred
+     * @param king piece code of the castling king
+     * @param to target square of the king
+     * @param undo true if the rook should be moved back to its corner
+     */
+    private void moveCastlingRook(int king, int to, boolean undo) {
+        int rook = king - KING + ROOK;
+        // kingside rook goes from the corner next to the king to the square the king passed over
+        int corner = (to & 7) == 6 ? to + 1 : to - 2;
+        int passed = (to & 7) == 6 ? to - 1 : to + 1;
+        if(undo) {
+            shiftPiece(rook, passed, corner);
+        } else {
+            shiftPiece(rook, corner, passed);
+        }
+    }
+
+
+    /**
+     * Generates a FEN from a board position
+     * @return a FEN string from the current board state
+     */
+    public String generateFEN() {
+        StringBuilder sb = new StringBuilder();
+        for(int r = 0; r < 8; r++) {
+            int skips = 0;
+            for(int c = 0; c < 8; c++) {
+                int piece = squares[r * 8 + c];
+                if(piece == EMPTY) {
+                    skips++;
+                } else {
+                    if(skips > 0) {
+                        sb.append(skips);
+                        skips = 0;
+                    }
+                    sb.append(PIECE_CHARS.charAt(piece));
+                }
+            }
+            if(skips > 0) {
+                sb.append(skips);
+            }
+            if(r < 7) {
+                sb.append('/');
+            }
+        }
+        sb.append(whiteTurn ? " w " : " b ");
+        if(castling == 0) {
+            sb.append('-');
+        } else {
+            if((castling & WHITE_KINGSIDE) != 0) sb.append('K');
+            if((castling & WHITE_QUEENSIDE) != 0) sb.append('Q');
+            if((castling & BLACK_KINGSIDE) != 0) sb.append('k');
+            if((castling & BLACK_QUEENSIDE) != 0) sb.append('q');
+        }
+        sb.append(' ');
+        sb.append(enPassant == EMPTY ? "-" : processSquare(enPassant));
+        sb.append(' ');
+        sb.append(halfMoves);
+        sb.append(' ');
+        sb.append(((ply - 1) / 2) + 1);
+        return sb.toString();
+    }
+
+
+    /**
+     * Gets the legal moves generated for the side to move
+     * @return a copy of the encoded legal moves
+     */
+    public int[] getMoves() {
+        ensureMoves();
+        return Arrays.copyOf(moveStack[height], moveCounts[height]);
+    }
+
+
+    /**
+     * Gets the move buffer of the current ply without copying it. The buffer is refilled whenever
+     * moves are generated at this ply again
+     * @return encoded legal moves, the first getMoveCount() entries are valid
+     */
+    public int[] getMoveBuffer() {
+        ensureMoves();
+        return moveStack[height];
+    }
+
+
+    /**
+     * Gets the number of legal moves in the move buffer of the current ply
+     * @return number of legal moves
+     */
+    public int getMoveCount() {
+        ensureMoves();
+        return moveCounts[height];
+    }
+
+
+    /**
+     * Doubles the move, undo and attack map stacks when a game goes deeper than they have room for. Searches stay
+     * well below MAX_PLY, so this only happens over long games played on a single board
+     */
+    private void ensureCapacity() {
+        while(height >= moveStack.length) {
+            undoStack = Arrays.copyOf(undoStack, moveStack.length * 2 * RECORD_SIZE);
+            int[][] grown = Arrays.copyOf(moveStack, moveStack.length * 2);
+            for(int i = moveStack.length; i < grown.length; i++) {
+                grown[i] = new int[MAX_MOVES];
+            }
+            moveStack = grown;
+            moveCounts = Arrays.copyOf(moveCounts, grown.length);
+            attackMaps = Arrays.copyOf(attackMaps, grown.length * 2);
+            attacksValid = Arrays.copyOf(attacksValid, grown.length);
+        }
+    }
+
+
+    /**
+     * Gets the legal moves of the piece on a square, in Board's {row, col} coordinates
+     * @param i row of the piece
+     * @param j column of the piece
+     * @return a list of coordinates that the piece can move to
+     */
+    public List<int[]> getMoves(int i, int j) {
+        List<int[]> moves = new ArrayList<>();
+        int from = i * 8 + j;
+        ensureMoves();
+        for(int k = 0; k < moveCounts[height]; k++) {
+            int m = moveStack[height][k];
+            // promotions are listed once per piece type, only keep the queen promotion
+            if(Move.from(m) == from && (!Move.isPromotion(m) || Move.promotion(m) == QUEEN)) {
+                moves.add(new int[] {Move.to(m) >> 3, Move.to(m) & 7});
+            }
+        }
+        return moves;
+    }
+
+
+    /**
+     * Gets the piece code on a square
+     * @param sq square index
+     * @return piece code, or EMPTY
+     */
+    public int pieceAt(int sq) {
+        return squares[sq];
+    }
+
+
+    /**
+     * Gets the bitboard of a piece code
+     * @param piece piece code
+     * @return bitboard of every square holding that piece
+     */
+    public long getBitboard(int piece) {
+        return pieces[piece];
+    }
+
+
+    /**
+     * Get the piece at on board location, in the same format as Board
+     * @param i row
+     * @param j column
+     * @return color + type of the piece, "" if empty
+     */
+    public String getPieceName(int i, int j) {
+        int piece = squares[i * 8 + j];
+        if(piece == EMPTY) {
+            return "";
+        }
+        return (colorOf(piece) == 0 ? "W" : "B") + PIECE_CHARS.charAt(piece % BLACK_OFFSET);
+    }
+
+
+    /**
+     * Gets the turn of the current player. Displaying 'W' for white and 'B' for black
+     * @return if(whiteTurn) 'W' : 'B'
+     */
+    public String getTurn() {
+        return whiteTurn ? "W" : "B";
+    }
+
+
+    /**
+     * Gets the current turn
+     * @return true if it is white's turn
+     */
+    public boolean whiteTurn() {
+        return whiteTurn;
+    }
+
+
+    /**
+     * Gets the ply of the board
+     * @return ply
+     */
+    public int getPly() {
+        return ply;
+    }
+
+
+    /**
+     * Gets the Zobrist key of the position. Positions with the same pieces, side to move,
+     * castling rights and en passant file share a key
+     * @return 64-bit position key
+     */
+    public long hash() {
+        return hash;
+    }
+
+
+    /**
+     * Gets if there are moves available for the current player's turn. If
+     * moves available == 0, game is over. Uses the generated moves if there are any,
+     * otherwise only looks for a single legal move
+     * @return true if there are moves available for the current player
+     */
+    public boolean movesAvailable() {
+        return hasLegalMove();
+    }
+
+
+    /**
+     * Returns the String representation of the board
+     * @return a String that has ASCII characters representing the board
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for(int r = 0; r < 8; r++) {
+            sb.append('|');
+            for(int c = 0; c < 8; c++) {
+                int piece = squares[r * 8 + c];
+                sb.append(piece == EMPTY ? ' ' : PIECE_CHARS.charAt(piece));
+                sb.append('|');
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -13,38 +13,70 @@
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 
 public class Board {
         // King, queen, rook, bishop, knight pawn
         private final char[] classifier = new char[] {'R', 'N', 'B', 'Q', 'K', 'B', 'N', 'R', 'P'};
+        // piece types in BitBoard piece code order, used to look up Zobrist keys
+        private static final String PIECE_CODES = "PNBRQK";
         // directional arrays to simplify common directional moves
         public static final int[] DIAGONAL_DIR = new int[] {-1, -1, 1, 1, -1};
         public static final int[] LATERAL_DIR = new int[] {-1, 0 , 1, 0, -1};
         public static final int[] PAWN_DIR = new int[] {-1, 1};
         private Piece[][] board;
-        // hashmap for active white and black pieces. Make iterating through pieces simple
-        private HashMap<Piece, List<int[]>> whitePieces;
-        private HashMap<Piece, List<int[]>> blackPieces;
-        // access to white and black king is essential, as all moves must ensure king safety
+        // bit row * 8 + col is set when board[row][col] holds a piece, used with the magic attack tables
+        private long occupied;
+        // piece lists indexed by a small piece id: white pieces take ids 0-15 and black pieces 16-31.
+        // Each square points back at the id of the piece on it, so make and unmake never search for a piece
+        private static final int BLACK_ID = 16;
+        private Piece[] pieceList;
+        private List<List<int[]>> moveLists;
+        private int[] squareIds;
+        private int whiteCount;
+        private int blackCount;
+        // moves are generated on demand: movesGenerated is cleared whenever the position changes
+        private boolean movesGenerated;
         private boolean movesAvailable;
+        // pins and checks of the side to move, found once before its moves are generated.
+        // Non-king moves have to land in checkMask, and a pinned piece has to stay on its pin ray
+        private long checkMask;
+        private long pinned;
+        private final long[] pinRays = new long[64];
+        // squares attacked by white and by black, built the first time they are needed in a position.
+        // attacksValid holds a bit for each map that is up to date
+        private final long[] attackMaps = new long[2];
+        private int attacksValid;
+        // access to white and black king is essential, as all moves must ensure king safety
         private Piece whiteKing;
         private Piece blackKing;
         private boolean whiteTurn;
         private int ply;
         private int halfMoves;
+        // square of the pawn that can be captured en passant, BitBoard.EMPTY if there is none
+        private int enPassant;
+        // Zobrist key of the position. setSquare toggles the piece keys, makeMove toggles the rest
+        private long hash;
         private final int LOCATION_CONVERTER = 50;
         // Stacks to implement command pattern for redo and undo (TODO change to generate game from PGN / FEN)
         private ArrayDeque<String> undoFEN;
         private ArrayDeque<String> redoFEN;
-        // Stacks to implement undo and redo withoutFEN
-        private ArrayDeque<Piece> captured;
-        private ArrayDeque<Piece> lastMoved;
-        private ArrayDeque<int[]> previousPos;
-        private ArrayDeque<Boolean> prevCastle;
-        private final Piece NULL_PIECE = new Pawn(0, -1, -1);
+        // Undo records, RECORD_SIZE entries per move made: the encoded move, the id of the captured piece
+        // (-1 if none), the castling rights, en passant square, half moves and hash from before the move
+        private static final int MOVE = 0;
+        private static final int CAPTURED = 1;
+        private static final int CASTLING = 2;
+        private static final int EN_PASSANT = 3;
+        private static final int HALF_MOVES = 4;
+        private static final int HASH = 5;
+        private static final int RECORD_SIZE = 6;
+        // set in a record's castling rights if the moving piece itself could still castle
+        private static final int MOVER_RIGHTS = 16;
+        private long[] undoStack;
+        private int undoCount;
+        // Stacks to implement redo withoutFEN
         private ArrayDeque<Piece> lastMovedRedo;
         private ArrayDeque<int[]> moveRedo;
 
@@ -56,7 +88,6 @@ public class Board {
         public Board() {
                 initializeFields();
                 initializeBoard();
-                movesAvailable = generateAllMoves();
         }
 
         
@@ -65,33 +96,34 @@ public class Board {
          * @param b board to be copied
          */
         public Board(Board b) {
-                board = new Piece[8][8];
+                initializeFields();
                 ply = b.getPly();
+                halfMoves = b.halfMoves;
                 whiteTurn = b.whiteTurn;
-                blackPieces = new HashMap<>(b.blackPieces);
-                whitePieces = new HashMap<>(b.whitePieces);
-                undoFEN = new ArrayDeque<>(b.undoFEN);
-                redoFEN = new ArrayDeque<>(b.redoFEN);
-                captured = new ArrayDeque<>(b.captured);
-                lastMoved = new ArrayDeque<>(b.lastMoved);
-                previousPos = new ArrayDeque<>(b.previousPos);
-                prevCastle = new ArrayDeque<>(b.prevCastle);
-                lastMovedRedo = new ArrayDeque<>(b.lastMovedRedo);
-                moveRedo = new ArrayDeque<>(b.moveRedo);
-                movesAvailable = b.movesAvailable;
-                for(Piece p : blackPieces.keySet()) {
-                        board[p.getRow()][p.getCol()] = createPiece(p);
-                        if(p.isKing()) {
-                                blackKing = board[p.getRow()][p.getCol()];
+                whiteCount = b.whiteCount;
+                blackCount = b.blackCount;
+                // copies keep the id of the piece they copy, so the undo stacks can be translated by id
+                for(int id = 0; id < pieceList.length; id++) {
+                        Piece p = b.pieceList[id];
+                        if(p != null) {
+                                pieceList[id] = createPiece(p);
+                                pieceList[id].setId(id);
+                                if(!p.isCaptured()) {
+                                        setSquare(p.getRow(), p.getCol(), pieceList[id]);
+                                        trackKing(new int[] {p.getCol(), p.getRow()});
+                                }
                         }
                 }
-                for(Piece p : whitePieces.keySet()) {
-                        board[p.getRow()][p.getCol()] = createPiece(p);
-                        if(p.isKing()) {
-                                whiteKing = board[p.getRow()][p.getCol()];
-                        }
+                undoFEN = new ArrayDeque<>(b.undoFEN);
+                redoFEN = new ArrayDeque<>(b.redoFEN);
+                enPassant = b.enPassant;
+                undoStack = Arrays.copyOf(b.undoStack, b.undoStack.length);
+                undoCount = b.undoCount;
+                for(Piece p : b.lastMovedRedo) {
+                        lastMovedRedo.offer(pieceList[p.getId()]);
                 }
-                generateAllMoves();
+                moveRedo = new ArrayDeque<>(b.moveRedo);
+                hash = computeHash();
         }
         
         
@@ -101,7 +133,6 @@ public class Board {
         public void reset() {
                 initializeFields();
                 initializeBoard();
-                generateAllMoves();
         }
         
         
@@ -110,20 +141,16 @@ public class Board {
          */
         public void initializeBoard() {
                 for(int j = 0; j < board.length; j++) {
-                        board[1][j] = new Pawn(8, 1, j); // Create pawns
-                        board[6][j] = new Pawn(8, 6, j);
-                        blackPieces.put(board[1][j], new ArrayList<>());
-                        whitePieces.put(board[6][j], new ArrayList<>());
-                        board[0][j] = createPiece(j, 0, j);
-                        board[7][j] = createPiece(j, 7, j);
+                        setSquare(1, j, addPiece(new Pawn(8, 1, j))); // Create pawns
+                        setSquare(6, j, addPiece(new Pawn(8, 6, j)));
+                        setSquare(0, j, addPiece(createPiece(j, 0, j)));
+                        setSquare(7, j, addPiece(createPiece(j, 7, j)));
                         if(j == 4) {
                                 whiteKing = board[7][j];
                                 blackKing = board[0][j];
                         }
-                        // catalog white pieces and black pieces. Use for later to iterate through to find moves
-                        blackPieces.put(board[0][j], new ArrayList<>());
-                        whitePieces.put(board[7][j], new ArrayList<>());
                 }
+                hash = computeHash();
                 undoFEN.offer(generateFEN());
         }
         
@@ -133,17 +160,27 @@ public class Board {
          */
         private void initializeFields() {
                 board = new Piece[8][8];
+                movesGenerated = false;
+                attacksValid = 0;
+                occupied = 0L;
+                hash = 0L;
                 ply = 1;
                 halfMoves = 0;
                 whiteTurn = true;
-                blackPieces = new HashMap<>();
-                whitePieces = new HashMap<>();
+                pieceList = new Piece[2 * BLACK_ID];
+                moveLists = new ArrayList<>();
+                for(int id = 0; id < pieceList.length; id++) {
+                        moveLists.add(new ArrayList<>());
+                }
+                squareIds = new int[64];
+                Arrays.fill(squareIds, -1);
+                whiteCount = 0;
+                blackCount = 0;
                 redoFEN = new ArrayDeque<>();
                 undoFEN = new ArrayDeque<>();
-                previousPos = new ArrayDeque<>();
-                lastMoved = new ArrayDeque<>();
-                captured = new ArrayDeque<>();
-                prevCastle = new ArrayDeque<>();
+                enPassant = BitBoard.EMPTY;
+                undoStack = new long[BitBoard.MAX_PLY * RECORD_SIZE];
+                undoCount = 0;
                 lastMovedRedo = new ArrayDeque<>();
                 moveRedo = new ArrayDeque<>();
         }
@@ -158,12 +195,18 @@ public class Board {
                 if(parsedFen.length < 6) {
                         throw new IllegalArgumentException("FEN is not formatted correctly");
                 }
+                // nothing from the position before the FEN carries over
+                enPassant = BitBoard.EMPTY;
+                undoCount = 0;
                 placePieces(parsedFen[0]);
                 whiteTurn = parsedFen[1].equals("w");
                 assignCastlingRights(parsedFen[2]);
                 this.halfMoves = Integer.parseInt(parsedFen[4]);
                 this.ply = Integer.parseInt(parsedFen[5]);
                 assignEnPassant(parsedFen[3]);
+                hash = computeHash();
+                movesGenerated = false;
+                attacksValid = 0;
         }
 
         
@@ -175,11 +218,9 @@ public class Board {
         private void assignEnPassant(String enPassantSquare) {
                 if(!enPassantSquare.equals("-")) {
                         int[] pos = processNotation(enPassantSquare);
-                        if(whiteTurn) {
-                                board[pos[0] + 1][pos[1]].setPly(this.getPly());;
-                        } else {
-                                board[pos[0] - 1][pos[1]].setPly(this.getPly());
-                        }
+                        int row = whiteTurn ? pos[0] + 1 : pos[0] - 1;
+                        board[row][pos[1]].setPly(this.getPly());
+                        enPassant = row * 8 + pos[1];
                 }
         }
         
@@ -261,8 +302,9 @@ public class Board {
          * @param pieces arrangement in FEN
          */
         private void placePieces(String pieces) {
-                whitePieces = new HashMap<>();
-                blackPieces = new HashMap<>();
+                Arrays.fill(pieceList, null);
+                whiteCount = 0;
+                blackCount = 0;
                 String[] rows = pieces.split("/");
 
                 for(int r = 0; r < rows.length; r++) {
@@ -272,20 +314,15 @@ public class Board {
                                         // if a number encountered. Skip ahead that many columns in the board
                                         int skip = Integer.parseInt(rows[r].charAt(j) + "");
                                         for(int k = 0; k < skip; k++) {
-                                                board[r][c] = null;
+                                                setSquare(r, c, null);
                                                 c++;
                                         }
                                 } catch(NumberFormatException e) {
                                         // if a character encountered, put in the board at the row and col, a piece
                                         // based on the FEN specification
-                                        board[r][c] = createPiece(rows[r].charAt(j), r, c);
+                                        setSquare(r, c, addPiece(createPiece(rows[r].charAt(j), r, c)));
                                         // keep track of white and black kings
                                         trackKing(new int[] {c, r});
-                                        if(board[r][c].isWhite()) {
-                                                whitePieces.put(board[r][c], new ArrayList<>());
-                                        } else {
-                                                blackPieces.put(board[r][c], new ArrayList<>());
-                                        }
                                         c++;
                                 }
                         }
@@ -294,12 +331,41 @@ public class Board {
         
         
         /**
-         * Gets the piece list for a desired color
-         * @param isWhite the color desired (isWhite == whitePieces)
-         * @return isWhite ? whitePieces : blackPieces
+         * Gives a piece the next free id of its color and adds it to the piece list
+         * @param p piece to be added
+         * @return p, so it can be placed on the board in the same statement
+         */
+        private Piece addPiece(Piece p) {
+                int id = p.isWhite() ? whiteCount++ : BLACK_ID + blackCount++;
+                if(id >= (p.isWhite() ? BLACK_ID : pieceList.length)) {
+                        throw new IllegalArgumentException("Too many pieces of one color: " + p);
+                }
+                p.setId(id);
+                pieceList[id] = p;
+                moveLists.get(id).clear();
+                return p;
+        }
+        
+        
+        /**
+         * Gets the piece list for a desired color, including captured pieces
+         * @param isWhite the color desired
+         * @return the pieces of that color in id order
+         */
+        public Piece[] getPieceList(boolean isWhite) {
+                return isWhite ? Arrays.copyOfRange(pieceList, 0, whiteCount)
+                                : Arrays.copyOfRange(pieceList, BLACK_ID, BLACK_ID + blackCount);
+        }
+        
+        
+        /**
+         * Gets the moves last generated for a piece
+         * @param p piece on this board
+         * @return the list of {row, col} moves of p
          */
-        public HashMap<Piece, List<int[]>> getPieceList(boolean isWhite) {
-                return isWhite ? whitePieces : blackPieces;
+        public List<int[]> getMoves(Piece p) {
+                ensureMoves();
+                return moveLists.get(p.getId());
         }
         
         
@@ -308,22 +374,62 @@ public class Board {
          * @return number of legal moves > 0
          */
         public boolean generateAllMoves() {
-                HashMap<Piece, List<int[]>> colorPieces = whiteTurn ? whitePieces : blackPieces;
+                int start = whiteTurn ? 0 : BLACK_ID;
+                int end = whiteTurn ? whiteCount : BLACK_ID + blackCount;
+                updatePins();
                 int size = 0;
-                for(Piece p : colorPieces.keySet()) {
+                for(int id = start; id < end; id++) {
+                        Piece p = pieceList[id];
                         if(!p.isCaptured()) {
-                                try {
-                                        List<int[]> moves = colorPieces.get(p);
-                                        moves.clear();
+                                List<int[]> moves = moveLists.get(id);
+                                moves.clear();
+                                if(canMove(p)) {
                                         p.getMoves(this, moves, p, p.getRow(), p.getCol());
                                         size += moves.size();
-                                } catch (NullPointerException e) {
-                                        System.out.println("Error trying to get: " + p + " from: " + colorPieces);
                                 }
-                
                         }
                 }
-                return size > 0;
+                movesGenerated = true;
+                movesAvailable = size > 0;
+                return movesAvailable;
+        }
+        
+        
+        /**
+         * Generates the moves of the side to move if the position changed since they were last generated
+         */
+        private void ensureMoves() {
+                if(!movesGenerated) {
+                        generateAllMoves();
+                }
+        }
+        
+        
+        /**
+         * Gets if the side to move has any legal move. If the moves have not been generated yet,
+         * this stops at the first piece that has one, which is much cheaper than generating every move
+         * when only checkmate and stalemate matter
+         * @return true if there is at least one legal move
+         */
+        public boolean hasLegalMove() {
+                if(movesGenerated) {
+                        return movesAvailable;
+                }
+                int start = whiteTurn ? 0 : BLACK_ID;
+                int end = whiteTurn ? whiteCount : BLACK_ID + blackCount;
+                updatePins();
+                for(int id = start; id < end; id++) {
+                        Piece p = pieceList[id];
+                        if(!p.isCaptured() && canMove(p)) {
+                                // the move list is filled in again when all moves are generated
+                                List<int[]> moves = moveLists.get(id);
+                                moves.clear();
+                                if(!p.getMoves(this, moves, p, p.getRow(), p.getCol()).isEmpty()) {
+                                        return true;
+                                }
+                        }
+                }
+                return false;
         }
         
         
@@ -396,8 +502,8 @@ public class Board {
                 Piece p = board[loc[0]][loc[1]];
                 if(p != null) {  
                         if(p.isWhite() == whiteTurn) {
-                                HashMap<Piece, List<int[]>> colorPieces = whiteTurn ? whitePieces : blackPieces;
-                                return colorPieces.get(p);
+                                ensureMoves();
+                                return moveLists.get(p.getId());
                         } 
                 }
                 return new ArrayList<>();
@@ -415,6 +521,28 @@ public class Board {
                 }
                 return board[i][j];
         }
+        
+        
+        /**
+         * Gets the piece on a square index, where sq = row * 8 + col
+         * @param sq square index
+         * @return a Piece object at board[sq / 8][sq % 8]
+         */
+        public Piece getPiece(int sq) {
+                return board[sq >> 3][sq & 7];
+        }
+        
+        
+        /**
+         * Gets the occupied squares of the board as a bitboard, where bit row * 8 + col is set
+         * if board[row][col] holds a piece
+         * @return occupancy mask
+         */
+        public long getOccupied() {
+                return occupied;
+        }
+        
+        
         /**
          * Calculates the coordinates of the 
          * @param x
@@ -445,16 +573,175 @@ public class Board {
          * @return true if no enemy piece is targeting the current square
          */
         public boolean isSafe(boolean color, int i, int j) {
-                if(!knightSafe(color, i, j) || !pawnSafe(color, i, j) || !kingSafe(color, i, j)) {
-                        return false;
+                return (attackedBy(!color) & (1L << (i * 8 + j))) == 0;
+        }
+        
+        
+        /**
+         * Gets every square attacked by a color. The map is built once per position, so the king's moves,
+         * its castling squares and checks are all tested against the same map
+         * @param byWhite true for the squares white attacks
+         * @return attacked squares, with bit row * 8 + col set for board[row][col]
+         */
+        public long attackedBy(boolean byWhite) {
+                int side = byWhite ? 0 : 1;
+                if((attacksValid & (1 << side)) == 0) {
+                        attackMaps[side] = computeAttacks(byWhite);
+                        attacksValid |= 1 << side;
                 }
-                for(int k = 0; k < DIAGONAL_DIR.length - 1; k++) {
-                        if(!lineIsLafe(color, i, j, LATERAL_DIR[k], LATERAL_DIR[k + 1]) 
-                                        || !lineIsLafe(color, i, j, DIAGONAL_DIR[k], DIAGONAL_DIR[k + 1])) {
-                                return false;
+                return attackMaps[side];
+        }
+        
+        
+        /**
+         * Builds the attack map of a color from its piece list
+         * @param byWhite true for the squares white attacks
+         * @return attacked squares
+         */
+        private long computeAttacks(boolean byWhite) {
+                // the enemy king never blocks an attack on a square, so slide through it
+                Piece target = byWhite ? blackKing : whiteKing;
+                long occ = occupied & ~(1L << (target.getRow() * 8 + target.getCol()));
+                int start = byWhite ? 0 : BLACK_ID;
+                int end = byWhite ? whiteCount : BLACK_ID + blackCount;
+                long attacks = 0L;
+                for(int id = start; id < end; id++) {
+                        Piece p = pieceList[id];
+                        if(p.isCaptured()) {
+                                continue;
+                        }
+                        int sq = p.getRow() * 8 + p.getCol();
+                        if(p.isPawn()) {
+                                attacks |= Attacks.pawnAttacks(sq, byWhite);
+                        } else if(p.isKnight()) {
+                                attacks |= Attacks.knightAttacks(sq);
+                        } else if(p.isKing()) {
+                                attacks |= Attacks.kingAttacks(sq);
+                        } else if(p.isQueen()) {
+                                attacks |= Attacks.queenAttacks(sq, occ);
+                        } else if(p.isRook()) {
+                                attacks |= Attacks.rookAttacks(sq, occ);
+                        } else {
+                                attacks |= Attacks.bishopAttacks(sq, occ);
                         }
                 }
-                return true;
+                return attacks;
+        }
+        
+        
+        /**
+         * Finds the pieces checking the king of the side to move and the ally pieces pinned to it.
+         * The first piece on each ray from the king is a checker if it is an enemy slider of the ray's type,
+         * and if it is an ally piece it is pinned when the next piece behind it is one
+         */
+        private void updatePins() {
+                Piece king = whiteTurn ? whiteKing : blackKing;
+                int kingSq = king.getRow() * 8 + king.getCol();
+                long checkers = 0L;
+                for(long bb = Attacks.knightAttacks(kingSq) & occupied; bb != 0; bb &= bb - 1) {
+                        Piece p = getPiece(Long.numberOfTrailingZeros(bb));
+                        if(p.isWhite() != whiteTurn && p.isKnight()) {
+                                checkers |= bb & -bb;
+                        }
+                }
+                for(long bb = Attacks.pawnAttacks(kingSq, whiteTurn) & occupied; bb != 0; bb &= bb - 1) {
+                        Piece p = getPiece(Long.numberOfTrailingZeros(bb));
+                        if(p.isWhite() != whiteTurn && p.isPawn()) {
+                                checkers |= bb & -bb;
+                        }
+                }
+                pinned = 0L;
+                checkers |= sliderPins(kingSq, Attacks.rookAttacks(kingSq, occupied) & occupied, true);
+                checkers |= sliderPins(kingSq, Attacks.bishopAttacks(kingSq, occupied) & occupied, false);
+                if(checkers == 0) {
+                        checkMask = -1L;
+                } else if((checkers & (checkers - 1)) == 0) {
+                        // a single check is answered by capturing the checker or blocking its ray
+                        checkMask = checkers | Attacks.between(kingSq, Long.numberOfTrailingZeros(checkers));
+                } else {
+                        // only the king can move out of a double check
+                        checkMask = 0L;
+                }
+        }
+        
+        
+        /**
+         * Looks at the first piece on each lateral or diagonal ray from the king. Ally pieces with an enemy
+         * slider right behind them are added to the pinned pieces along with their pin ray
+         * @param kingSq square of the king of the side to move
+         * @param blockers first piece on each ray from the king
+         * @param lateral true for rook rays, false for bishop rays
+         * @return enemy sliders that check the king along these rays
+         */
+        private long sliderPins(int kingSq, long blockers, boolean lateral) {
+                long checkers = 0L;
+                for(; blockers != 0; blockers &= blockers - 1) {
+                        int sq = Long.numberOfTrailingZeros(blockers);
+                        Piece p = getPiece(sq);
+                        if(p.isWhite() != whiteTurn) {
+                                if(slidesAlong(p, lateral)) {
+                                        checkers |= 1L << sq;
+                                }
+                        } else {
+                                // removing the ally piece uncovers the next piece on the same ray
+                                long occ = occupied & ~(1L << sq);
+                                long behind = lateral ? Attacks.rookAttacks(kingSq, occ) & Attacks.rookAttacks(sq, occupied)
+                                                : Attacks.bishopAttacks(kingSq, occ) & Attacks.bishopAttacks(sq, occupied);
+                                behind &= occ;
+                                if(behind != 0) {
+                                        int pinner = Long.numberOfTrailingZeros(behind);
+                                        Piece q = getPiece(pinner);
+                                        if(q.isWhite() != whiteTurn && slidesAlong(q, lateral)) {
+                                                pinned |= 1L << sq;
+                                                pinRays[sq] = Attacks.between(kingSq, pinner) | behind;
+                                        }
+                                }
+                        }
+                }
+                return checkers;
+        }
+        
+        
+        /**
+         * Gets if a piece slides along a type of ray
+         * @param p piece to be tested
+         * @param lateral true for rows and columns, false for diagonals
+         * @return true if p is a queen (or promoted pawn), or a rook for lateral rays and a bishop for diagonal ones
+         */
+        private boolean slidesAlong(Piece p, boolean lateral) {
+                return p.isQueen() || (lateral ? p.isRook() : p.isBishop());
+        }
+        
+        
+        /**
+         * Gets if a piece can have any legal move given the checks found by updatePins. When the king is in check
+         * only evasions are legal: against a double check just the king can move, and a pinned piece
+         * can never capture the checker or block its ray, since it has to stay on a different ray of the king
+         * @param p piece of the side to move
+         * @return false if the piece has no legal move because of a check
+         */
+        private boolean canMove(Piece p) {
+                if(checkMask == -1L || p.isKing()) {
+                        return true;
+                }
+                return checkMask != 0 && (pinned & (1L << (p.getRow() * 8 + p.getCol()))) == 0;
+        }
+        
+        
+        /**
+         * Gets if a move of a piece of the side to move keeps its king out of check, using the pins and checks
+         * found before the moves were generated. Only valid for pieces other than the king, and
+         * not for en passant, which can uncover a check along the row of both pawns
+         * @param movedFromI moving piece starting row
+         * @param movedFromJ moving piece starting column
+         * @param movedToI moving piece ending row
+         * @param movedToJ moving piece ending column
+         * @return true if the move is legal
+         */
+        public boolean isLegalMove(int movedFromI, int movedFromJ, int movedToI, int movedToJ) {
+                int from = movedFromI * 8 + movedFromJ;
+                long to = 1L << (movedToI * 8 + movedToJ);
+                return (checkMask & to) != 0 && ((pinned & (1L << from)) == 0 || (pinRays[from] & to) != 0);
         }
         
         
@@ -476,22 +763,13 @@ public class Board {
                 if(!knightSafeWithMove(color, i, j, movedToI, movedToJ) || !pawnSafeWithMove(color, i, j, movedToI, movedToJ)) {
                         return false;
                 }
-                int[] enPassant; 
+                long movedTo = 1L << (movedToI * 8 + movedToJ);
+                long occ = (occupied & ~(1L << (movedFromI * 8 + movedFromJ))) | movedTo;
                 // if pawn is moving like enpassant should ignore its captured piece as well
                 if(!isEmpty(movedFromI, movedFromJ) && getPiece(movedFromI, movedFromJ).isPawn() && movedFromJ != movedToJ && isEmpty(movedToI, movedToJ)) {
-                        enPassant = new int[] {movedFromI, movedToJ};
-                } else {
-                        enPassant = new int[] {-1, -1};
+                        occ &= ~(1L << (movedFromI * 8 + movedToJ));
                 }
-                for(int k = 0; k < LATERAL_DIR.length - 1; k++) {
-                        if(!lineIsSafeWithMove(color, i, j, LATERAL_DIR[k], LATERAL_DIR[k + 1],
-                                        movedFromI, movedFromJ, movedToI, movedToJ, enPassant)
-                                        || !lineIsSafeWithMove(color, i, j, DIAGONAL_DIR[k], DIAGONAL_DIR[k + 1],
-                                                        movedFromI, movedFromJ, movedToI, movedToJ, enPassant)) {
-                                return false;
-                        }
-                }
-                return true;
+                return slidersSafe(color, i, j, occ, movedTo);
         }
         
         
@@ -505,115 +783,34 @@ public class Board {
          * @return true if after ally piece has moved to board[movedToI][movedToJ], then board[i][j] is safe from an enemy knight 
          */
         private boolean knightSafeWithMove(boolean color, int i, int j, int movedToI, int movedToJ) {
-                for(int k = 0; k < LATERAL_DIR.length - 1; k++) {
-                        if(knightSafeHelperWithMove(color, i + (LATERAL_DIR[k] + LATERAL_DIR[k + 1]) * 2, j - 1, movedToI, movedToJ)
-                                        || knightSafeHelperWithMove(color, i + (LATERAL_DIR[k] + LATERAL_DIR[k + 1]) * 2, j + 1, movedToI, movedToJ)
-                                        || knightSafeHelperWithMove(color, i - 1, j + (LATERAL_DIR[k] + LATERAL_DIR[k + 1]) * 2, movedToI, movedToJ)
-                                        || knightSafeHelperWithMove(color, i + 1, j + (LATERAL_DIR[k] + LATERAL_DIR[k + 1]) * 2, movedToI, movedToJ)) {
-                                return false;
-                        }
-                }
-                return true;
+                // a knight on the square moved to has been captured
+                return !enemyOn(Attacks.knightAttacks(i * 8 + j) & ~(1L << (movedToI * 8 + movedToJ)), color, 'N');
         }
 
         
         /**
-         * Helper for knight safe with move. Basically makes sure that if the piece has captured a knight, do not
-         * consider that knight dangerous
-         * @param color of ally pieces
-         * @param i row of piece to be safe
-         * @param j col of piece to be safe
-         * @param movedToI row ally piece move to
-         * @param movedToJ col ally piece move to
-         * @return true if after ally piece has moved to board[movedToI][movedToJ], then board[i][j] is safe from an enemy knight 
-         */
-        private boolean knightSafeHelperWithMove(boolean color, int i, int j, int movedToI, int movedToJ) {
-                if(inBounds(i, j) && !isEmpty(i, j) && !(i == movedToI && j == movedToJ)) {
-                        return getPiece(i, j).isWhite() != color && getPiece(i, j).isKnight();
-                }
-                return false;
-        }
-
-        
-        /**
-         * Gets if a line is safe given that a piece has been moved with color 
+         * Gets if board[i][j] is safe from enemy rooks, bishops and queens given a set of occupied squares.
+         * The first piece on every ray comes from a single lookup in the magic attack tables
          * @param color of ally pieces
          * @param i row of square to be protected
          * @param j col of square to be protected
-         * @param rowChange change in row
-         * @param colChange change in col
-         * @param movedFromI moving piece initial row
-         * @param movedFromJ moving piece initial col
-         * @param movedToI moving piece ending row
-         * @param movedToJ moving piece ending col
-         * @return true if no piece in the line is attacking board[i][j]
-         */
-        public boolean lineIsSafeWithMove(boolean color, int i, int j, int rowChange, int colChange, 
-                        int movedFromI, int movedFromJ, int movedToI, int movedToJ, int[] enPassant) {
-                int row = i + rowChange;
-                int col = j + colChange;
-                // skip square if it is empty or is a square previously occupied
-                while(inBounds(row, col) && (isEmpty(row, col) || (row == movedFromI && col == movedFromJ) || (row == enPassant[0] && col == enPassant[1])) 
-                                && !(row == movedToI && col == movedToJ)) {
-                        row += rowChange;
-                        col += colChange;
-                }
-                // return false (line is not safe) if encountering a bishop, rook, or queen in the same line
-                if(inBounds(row, col) && !(row == movedToI && col == movedToJ) && getPiece(row, col).isWhite() != color) {
-                        Piece targetPiece = this.getPiece(row, col);
-                        if(((row == i || col == j) && (targetPiece.isQueen() || targetPiece.isRook() || targetPiece.isPromoted()))
-                                        || (((row + col == i + j) || (row - col == i - j)) && (targetPiece.isQueen() || targetPiece.isBishop() || targetPiece.isPromoted()))) {
+         * @param occ occupied squares that block the rays
+         * @param ally squares in occ that hold an ally piece after a move, even if the board does not yet
+         * @return true if no sliding piece is attacking board[i][j]
+         */
+        private boolean slidersSafe(boolean color, int i, int j, long occ, long ally) {
+                int sq = i * 8 + j;
+                // blockers in the same row or column are dangerous if they are a queen or rook
+                for(long blockers = Attacks.rookAttacks(sq, occ) & occ & ~ally; blockers != 0; blockers &= blockers - 1) {
+                        Piece targetPiece = getPiece(Long.numberOfTrailingZeros(blockers));
+                        if(targetPiece.isWhite() != color && (targetPiece.isQueen() || targetPiece.isRook() || targetPiece.isPromoted())) {
                                 return false;
                         }
                 }
-                return true;
-        }
-        
-        
-        /**
-         * Gets if a particular line (lateral or diagonal) extending from square (i, j)
-         * is attacked by an enemy piece.
-         * @param i row of square
-         * @param j column of square
-         * @param rowChange increment for row
-         * @param colChange increment for column
-         * @return true if a square is safe from any attacks in this line
-         */
-        private boolean lineIsLafe(boolean color, int i, int j, int rowChange, int colChange) {
-                int row = i + rowChange;
-                int col = j + colChange;
-                // look for any intersecting piece
-                while(inBounds(row, col) && (isEmpty(row, col) || (getPiece(row, col).isWhite() == color && getPiece(row, col).isKing()))) {
-                        row += rowChange;
-                        col += colChange;
-                }
-                // if a piece is an opposite color, the King is attacked if it is in the same:
-                // row or column as a Queen or rook (means the row or column must be equal
-                // diagonal as a Queen or Bishop (means diff or rows and cols OR sum of rows and cols must be equal)
-                // knight targeted square
-                if(inBounds(row, col) && getPiece(row, col).isWhite() != color) {
-                        Piece targetPiece = this.getPiece(row, col);
-                        if(((row == i || col == j) && (targetPiece.isQueen() || targetPiece.isRook() || targetPiece.isPromoted()))
-                                        || (((row + col == i + j) || (row - col == i - j)) && (targetPiece.isQueen() || targetPiece.isBishop() || targetPiece.isPromoted()))) {
-                                return false;
-                        }
-                }
-                return true;
-        }
-        
-        
-        /**
-         * Gets if a square is safe from a pawn
-         * @param i row of square
-         * @param j column of square
-         * @return true if a square is not attacked by an enemy pawn
-         */
-        private boolean pawnSafe(boolean color, int i, int j) {
-                int rowChange = color ? -1 : 1;
-                for(int k = 0; k < PAWN_DIR.length; k++) {
-                        if(inBounds(i + rowChange, j + PAWN_DIR[k]) && !isEmpty(i + rowChange, j + PAWN_DIR[k]) 
-                                        && getPiece(i + rowChange, j + PAWN_DIR[k]).isWhite() != color
-                                        && getPiece(i + rowChange, j + PAWN_DIR[k]).isPawn()) {
+                // blockers in the same diagonal are dangerous if they are a queen or bishop
+                for(long blockers = Attacks.bishopAttacks(sq, occ) & occ & ~ally; blockers != 0; blockers &= blockers - 1) {
+                        Piece targetPiece = getPiece(Long.numberOfTrailingZeros(blockers));
+                        if(targetPiece.isWhite() != color && (targetPiece.isQueen() || targetPiece.isBishop() || targetPiece.isPromoted())) {
                                 return false;
                         }
                 }
@@ -631,85 +828,47 @@ public class Board {
          * @return true if a square is safe when considering an ally piece is moving to a target square
          */
         private boolean pawnSafeWithMove(boolean color, int i, int j, int movedToI, int movedToJ) {
-                int rowChange = color ? -1 : 1;
-                for(int k = 0; k < PAWN_DIR.length; k++) {
-                        if(!(i + rowChange == movedToI && j + PAWN_DIR[k] == movedToJ) && 
-                                        inBounds(i + rowChange, j + PAWN_DIR[k]) && !isEmpty(i + rowChange, j + PAWN_DIR[k])
-                                        && getPiece(i + rowChange, j + PAWN_DIR[k]).isWhite() != color
-                                        && getPiece(i + rowChange, j + PAWN_DIR[k]).isPawn()) {
-                                return false;
-                        }
-                }
-                return true;
+                return !enemyOn(Attacks.pawnAttacks(i * 8 + j, color) & ~(1L << (movedToI * 8 + movedToJ)), color, 'P');
         }
         
         
         /**
-         * Gets if a square is safe from a Knight
-         * @param i row of square
-         * @param j column of square
-         * @return true if a square is not attacked by an enemy knight
-         */
-        private boolean knightSafe(boolean color, int i, int j) {
-                for(int k = 0; k < LATERAL_DIR.length - 1; k++) {
-                        if(knightSafeHelper(color, i + (LATERAL_DIR[k] + LATERAL_DIR[k + 1]) * 2, j - 1)
-                                        || knightSafeHelper(color, i + (LATERAL_DIR[k] + LATERAL_DIR[k + 1]) * 2, j + 1)
-                                        || knightSafeHelper(color, i - 1, j + (LATERAL_DIR[k] + LATERAL_DIR[k + 1]) * 2)
-                                        || knightSafeHelper(color, i + 1, j + (LATERAL_DIR[k] + LATERAL_DIR[k + 1]) * 2)) {
-                                return false;
+         * Gets if any of a set of squares holds an enemy piece of a type
+         * @param squares squares to look at, usually from one of the attack tables
+         * @param color of ally pieces
+         * @param type type of the enemy piece, as returned by getType
+         * @return true if an enemy piece of that type is on one of the squares
+         */
+        private boolean enemyOn(long squares, boolean color, char type) {
+                for(squares &= occupied; squares != 0; squares &= squares - 1) {
+                        Piece p = getPiece(Long.numberOfTrailingZeros(squares));
+                        if(p.isWhite() != color && p.getType() == type) {
+                                return true;
                         }
                 }
-                return true;
-        }
-        
-        
-        /**
-         * Gets if a square is a knight of the opposite color
-         * @param color to be compared against
-         * @param row of square
-         * @param col of square
-         * @return if board[row][col] is a knight of the opposite color
-         */
-        private boolean knightSafeHelper(boolean color, int row, int col) {
-                if(inBounds(row, col) && !isEmpty(row, col)) {
-                        return getPiece(row, col).isWhite() != color && getPiece(row, col).isKnight();
-                }
                 return false;
         }
-        
+
         
         /**
-         * Gets if a square is safe from a King
-         * @param i row of square
-         * @param j column of square
-         * @return true if a square is not attacked by an enemy king
+         * Puts a piece on board[i][j] and keeps the occupancy mask, square ids and hash in sync
+         * @param i row of the board
+         * @param j column of the board
+         * @param p piece to be placed, null to empty the square
          */
-        private boolean kingSafe(boolean color, int i, int j) {
-                for(int k = 0; k < LATERAL_DIR.length - 1; k++) {
-                        if(!kingSafeHelper(color, i + LATERAL_DIR[k], j + LATERAL_DIR[k + 1]) 
-                                        || !kingSafeHelper(color, i + DIAGONAL_DIR[k], j + DIAGONAL_DIR[k + 1])) {
-                                return false;
-                        }
+        private void setSquare(int i, int j, Piece p) {
+                if(board[i][j] != null) {
+                        hash ^= zobristKey(board[i][j], i * 8 + j);
                 }
-                return true;
-        }
-        
-        
-        /**
-         * Checks if square board[i][j] is a king of the opposite color
-         * @param color to be compared against
-         * @param i row of square
-         * @param j column of square
-         * @return if board[i][j] is a King of the opposite color
-         */
-        private boolean kingSafeHelper(boolean color, int i, int j) {
-                if(inBounds(i, j) && !isEmpty(i, j) && getPiece(i, j).isWhite() != color
-                                && getPiece(i, j).isKing()) {
-                        return false;
+                if(p != null) {
+                        hash ^= zobristKey(p, i * 8 + j);
                 }
-                return true;
+                board[i][j] = p;
+                squareIds[i * 8 + j] = p == null ? -1 : p.getId();
+                long bit = 1L << (i * 8 + j);
+                occupied = p == null ? occupied & ~bit : occupied | bit;
         }
-
+        
         
         /**
          * Gets whether or not the square in question is empty (no piece is inhabiting the square)
@@ -723,34 +882,64 @@ public class Board {
 
         
         /**
-         * Moves a piece from prevPo to targPo
+         * Moves a piece from prevPo to targPo. Used by the gui, which also needs the redo history reset
          * @param prevPo previous position
          * @param targPo target position
          */
         public void move(int[] prevPo, int[] targPo) {
+                makeMove(prevPo, targPo);
+                redoFEN.clear();
+        }
+        
+        
+        /**
+         * Moves a piece from prevPo to targPo without touching the FEN and redo history. Used by searches.
+         * Moves for the next player are only generated once they are asked for
+         * @param prevPo previous position
+         * @param targPo target position
+         */
+        public void makeMove(int[] prevPo, int[] targPo) {
                 if(board[prevPo[1]][prevPo[0]].isWhite() != whiteTurn) {
                         throw new IllegalArgumentException("Moving on the wrong turn: " + board[prevPo[1]][prevPo[0]]
-                                        + " \n" + whitePieces + " \n" + blackPieces + " \n trying to move: " + prevPo[1] + " " + prevPo[0]
+                                        + " \n" + Arrays.toString(pieceList) + " \n trying to move: " + prevPo[1] + " " + prevPo[0]
                                                         + " to " + targPo[1] + " " + targPo[0] + "\n board state: \n" + this);
                 }
+                Piece p = board[prevPo[1]][prevPo[0]];
+                int from = prevPo[1] * 8 + prevPo[0];
+                int to = targPo[1] * 8 + targPo[0];
+                int flags = isEmpty(targPo[1], targPo[0]) && enPassantOccurred(this, prevPo, targPo) ? Move.EN_PASSANT : Move.NONE;
+                // record everything unmakeMove needs to restore before the position changes
+                if((undoCount + 1) * RECORD_SIZE > undoStack.length) {
+                        undoStack = Arrays.copyOf(undoStack, undoStack.length * 2);
+                }
+                int record = undoCount++ * RECORD_SIZE;
+                undoStack[record + CASTLING] = castlingMask() | (p.getCastlingRights() ? MOVER_RIGHTS : 0);
+                undoStack[record + EN_PASSANT] = enPassant;
+                undoStack[record + HALF_MOVES] = halfMoves;
+                undoStack[record + HASH] = hash;
+                int pieceCode = pieceCode(p);
+                // castling rights, en passant and side to move are toggled out here and back in once the move is made
+                hash ^= stateKey();
                 // kill a piece by removng it from the list of pieces (includes en passant captures)
-                capturePieceMap(prevPo, targPo);
+                Piece capturedP = capturePieceMap(prevPo, targPo);
+                halfMoves = p.isPawn() || capturedP != null ? 0 : halfMoves + 1;
                 // move the piece
-                if(getPiece(prevPo[1], prevPo[0]).isKing() && Math.abs(prevPo[0] - targPo[0]) > 1) {
+                if(p.isKing() && Math.abs(prevPo[0] - targPo[0]) > 1) {
                         moveCastlingRook(targPo);
+                        flags |= Move.CASTLE;
                 }
-                movePieceMap(prevPo, targPo);
+                boolean promoted = movePieceMap(prevPo, targPo);
                 // if the piece is a king, keep track of where it should go
                 trackKing(targPo);
                 checkEnPassant(prevPo, targPo);
-                // remove castling rights (if any) from the piece that just moved and change location
                 ply++;
                 changeTurn();
-                movesAvailable = generateAllMoves();
-                redoFEN.clear();
-                undoFEN.offer(generateFEN());
-                previousPos.offer(prevPo);
-                lastMoved.offer(board[targPo[1]][targPo[0]]);
+                movesGenerated = false;
+                attacksValid = 0;
+                undoStack[record + MOVE] = Move.encode(from, to, pieceCode, capturedP == null ? BitBoard.EMPTY : pieceCode(capturedP),
+                                promoted ? BitBoard.QUEEN : 0, flags);
+                undoStack[record + CAPTURED] = capturedP == null ? -1 : capturedP.getId();
+                hash ^= stateKey();
         }
 
         
@@ -762,13 +951,13 @@ public class Board {
         private void moveCastlingRook(int[] targPo) {
                 // kingside castle
                 if(targPo[0] == 6) {
-                        board[targPo[1]][5] = board[targPo[1]][7]; 
+                        setSquare(targPo[1], 5, board[targPo[1]][7]);
                         board[targPo[1]][5].setLocations(targPo[1], 5); 
-                        board[targPo[1]][7] = null; 
+                        setSquare(targPo[1], 7, null);
                 } else {
-                        board[targPo[1]][3] = board[targPo[1]][0]; 
+                        setSquare(targPo[1], 3, board[targPo[1]][0]);
                         board[targPo[1]][3].setLocations(targPo[1], 3); 
-                        board[targPo[1]][0] = null;
+                        setSquare(targPo[1], 0, null);
                 }
         }
 
@@ -776,17 +965,13 @@ public class Board {
         /**
          * Remove a piece from the board by setting its value to null
          * @param kill the piece at killSquare
+         * @return the captured piece
          */
-        private void kill(int[] killSquare) {
-                captured.offer(board[killSquare[1]][killSquare[0]]);
-                HashMap<Piece, List<int[]>> otherPieces = whiteTurn ? blackPieces : whitePieces;
-                for(Piece p : otherPieces.keySet()) {
-                        if(board[killSquare[1]][killSquare[0]].equals(p)) {
-                                p.capture();
-                        }
-                }
-                board[killSquare[1]][killSquare[0]].capture();
-                board[killSquare[1]][killSquare[0]] = null;
+        private Piece kill(int[] killSquare) {
+                Piece p = pieceList[squareIds[killSquare[1] * 8 + killSquare[0]]];
+                p.capture();
+                setSquare(killSquare[1], killSquare[0], null);
+                return p;
         }
         
         
@@ -795,18 +980,18 @@ public class Board {
          * If it is whiteTurn, the pieces captured should be removed from black's pieces and vice versa.
          * @param prevPo previous position of piece
          * @param targPo target position of piece
+         * @return the captured piece, null if nothing was captured
          */
-        private void capturePieceMap(int[] prevPo, int[] targPo) {
+        private Piece capturePieceMap(int[] prevPo, int[] targPo) {
                 // kill a piece by pseudo-removing it from the list of pieces -- remove the piece from the OPPOSITE piece map
                 if(board[targPo[1]][targPo[0]] != null) {
-                        kill(targPo);
+                        return kill(targPo);
                 } else if(enPassantOccurred(this, prevPo, targPo)) {
                         // if the target square is less than the current square column, 
                         // captured piece is on the left
-                        kill(new int[] {targPo[0], prevPo[1]});
-                } else {
-                        captured.offer(NULL_PIECE);
+                        return kill(new int[] {targPo[0], prevPo[1]});
                 }
+                return null;
         }
         
         
@@ -816,32 +1001,24 @@ public class Board {
          * Piece object
          * @param prevPo previous position of moving piece
          * @param targPo target position of moving piece
-         */
-        private void movePieceMap(int[] prevPo, int[] targPo) {
-                board[targPo[1]][targPo[0]] = board[prevPo[1]][prevPo[0]];
-                board[targPo[1]][targPo[0]].setLocations(targPo[1], targPo[0]);
-                prevCastle.offer(board[targPo[1]][targPo[0]].getCastlingRights());
-                board[targPo[1]][targPo[0]].setCastlingRights(false);
-                Piece p = board[targPo[1]][targPo[0]];
-                HashMap<Piece, List<int[]>> colorPieces = whiteTurn ? whitePieces : blackPieces;
-                if(promotionOccurred(this, targPo)) {
+         * @return true if the moving piece was a pawn that promoted
+         */
+        private boolean movePieceMap(int[] prevPo, int[] targPo) {
+                Piece p = board[prevPo[1]][prevPo[0]];
+                // the from-square is cleared first, so its key is removed while the piece is still a pawn
+                setSquare(prevPo[1], prevPo[0], null);
+                setSquare(targPo[1], targPo[0], p);
+                p.setLocations(targPo[1], targPo[0]);
+                p.setCastlingRights(false);
+                boolean promoted = promotionOccurred(this, targPo);
+                if(promoted) {
+                        // the pawn's key is swapped for the queen's key
+                        hash ^= zobristKey(p, targPo[1] * 8 + targPo[0]);
                         p.automaticPromote(p.getRow(), p.getCol());
+                        hash ^= zobristKey(p, targPo[1] * 8 + targPo[0]);
                         p.setPly(this);
-                        for(Piece bp : colorPieces.keySet()) {
-                                if(bp.equals(p)) {
-                                        bp.automaticPromote(p.getRow(), p.getCol());
-                                        bp.setPly(this);
-                                        break;
-                                }
-                        }
-                }
-                for(Piece bp : colorPieces.keySet()) {
-                        if(bp.equals(p)) {
-                                bp.setLocations(p.getRow(), p.getCol());
-                                break;
-                        }
                 }
-                board[prevPo[1]][prevPo[0]] = null;
+                return promoted;
         }
         
         
@@ -868,9 +1045,11 @@ public class Board {
          */
         private void checkEnPassant(int[] prevPo, int[] targPo) {
                 Piece p = board[targPo[1]][targPo[0]];
+                enPassant = BitBoard.EMPTY;
                 // if pawn moved two forward in the same column, mark its ply so its possible for en_passant captures
                 if(p.isPawn() && Math.abs(targPo[1] - prevPo[1]) > 1 && (targPo[0] == prevPo[0])) {
                         board[targPo[1]][targPo[0]].setPly(ply);
+                        enPassant = targPo[1] * 8 + targPo[0];
                 }
         }
 
@@ -990,7 +1169,8 @@ public class Board {
                         boolean wQueenside = false;
                         boolean bKingside = false;
                         boolean bQueenside = false;
-                        for(Piece p : whitePieces.keySet()) {
+                        for(int id = 0; id < whiteCount; id++) {
+                                Piece p = pieceList[id];
                                 if(p.isRook()) {
                                         // get castling rights from the rooks if they're in the correct column
                                         if(p.getCol() == 7) {
@@ -1000,7 +1180,8 @@ public class Board {
                                         }
                                 } 
                         }
-                        for(Piece p : blackPieces.keySet()) {
+                        for(int id = BLACK_ID; id < BLACK_ID + blackCount; id++) {
+                                Piece p = pieceList[id];
                                 if(p.isRook()) {
                                         if(p.getCol() == 7) {
                                                 bKingside = (blackKing.getCastlingRights() && p.getCastlingRights());
@@ -1021,6 +1202,10 @@ public class Board {
                         if(bQueenside) {
                                 sb.append('q');
                         }
+                        // the king may still have castling rights after both of its rooks moved
+                        if(!wKingside && !wQueenside && !bKingside && !bQueenside) {
+                                sb.append('-');
+                        }
                 } else {
                         sb.append('-');
                 }
@@ -1032,54 +1217,50 @@ public class Board {
          * Undoes a singular move if possible
          */
         public void undoMove() {
-                if(lastMoved.size() > 0) {
+                unmakeMove();
+        }
+        
+        
+        /**
+         * Undoes a singular move if possible. Counterpart of makeMove.
+         * Everything that can not be read off the board is restored straight from the last undo record
+         */
+        public void unmakeMove() {
+                if(undoCount > 0) {
+                        int record = --undoCount * RECORD_SIZE;
+                        int move = (int) undoStack[record + MOVE];
+                        int[] prevPo = new int[] {Move.from(move) & 7, Move.from(move) >> 3};
+                        int[] targPo = new int[] {Move.to(move) & 7, Move.to(move) >> 3};
                         changeTurn();
                         ply--;
-                        // get last position and last moved piece
-                        int[] prevPo = previousPos.removeLast();
-                        Piece lastP = lastMoved.removeLast();
-                        int[] targPo = new int[] {lastP.getCol(), lastP.getRow()};
-                        boolean lastCastle = prevCastle.removeLast();
-                        lastP.setCastlingRights(lastCastle);
+                        movesGenerated = false;
+                        attacksValid = 0;
+                        Piece lastP = board[targPo[1]][targPo[0]];
+                        lastP.setCastlingRights((undoStack[record + CASTLING] & MOVER_RIGHTS) != 0);
                         // put last moved piece in previous position
-                        board[prevPo[1]][prevPo[0]] = lastP;
+                        setSquare(prevPo[1], prevPo[0], lastP);
+                        setSquare(targPo[1], targPo[0], null);
                         // replace the captured piece
-                        if(captured.peekLast() == NULL_PIECE) {
-                                board[targPo[1]][targPo[0]] = null;
-                                captured.removeLast();
-                        } else {
-                                Piece capturedP = captured.removeLast();
-                                board[capturedP.getRow()][capturedP.getCol()] = capturedP;
-                                HashMap<Piece, List<int[]>> otherColor = getPieceList(!whiteTurn);
-                                for(Piece p : otherColor.keySet()) {
-                                        if(p.equals(capturedP)) {
-                                                p.uncapture();
-                                                break;
-                                        }                                        
-                                }
+                        int capturedId = (int) undoStack[record + CAPTURED];
+                        if(capturedId >= 0) {
+                                Piece capturedP = pieceList[capturedId];
+                                setSquare(capturedP.getRow(), capturedP.getCol(), capturedP);
                                 capturedP.uncapture();
                         }
                         lastP.setLocations(prevPo[1], prevPo[0]);
-                        HashMap<Piece, List<int[]>> colorPieces = getPieceList(whiteTurn);
                         // track the king
                         trackKing(prevPo);
-                        if(lastP.isKing() && Math.abs(prevPo[0] - targPo[0]) > 1) {
+                        if(Move.hasFlag(move, Move.CASTLE)) {
                                 // castling occurred, undo rook move as well
                                 unmoveCastlingRook(targPo);
                         }
-                        // update board state
-                        for(Piece p : colorPieces.keySet()) {
-                                if(p.equals(lastP)) {
-                                        p.setLocations(prevPo[1], prevPo[0]);
-                                        p.setCastlingRights(lastCastle);
-                                        break;
-                                }
-                        }
                         // undo promotion
-                        if(lastP.getPly() == this.getPly() && lastP.isPromoted()) {
+                        if(Move.isPromotion(move)) {
                                 automaticUndoPromote(lastP);
                         }
-                        movesAvailable = generateAllMoves();
+                        enPassant = (int) undoStack[record + EN_PASSANT];
+                        halfMoves = (int) undoStack[record + HALF_MOVES];
+                        hash = undoStack[record + HASH];
                 }
         }
         
@@ -1090,13 +1271,6 @@ public class Board {
          */
         private void automaticUndoPromote(Piece lastP) {
                 lastP.depromote();
-                HashMap<Piece, List<int[]>> colorPieces = getPieceList(whiteTurn);
-                for(Piece p : colorPieces.keySet()) {
-                        if(p.equals(lastP)) {
-                                p.depromote();
-                                break;
-                        }
-                }
         }
 
         
@@ -1106,19 +1280,10 @@ public class Board {
          */
         private void unmoveCastlingRook(int[] prevPo) {
                 int[] cols = prevPo[0] == 6 ? new int[] {7, 5} : new int[] {0, 3};
-                board[prevPo[1]][cols[0]] = board[prevPo[1]][cols[1]];
+                setSquare(prevPo[1], cols[0], board[prevPo[1]][cols[1]]);
                 board[prevPo[1]][cols[0]].setCastlingRights(true);
-                board[prevPo[1]][cols[0]].setLocations(prevPo[1], cols[1]);
-                Piece p = board[prevPo[1]][cols[0]];
-                HashMap<Piece, List<int[]>> colorPieces = whiteTurn ? whitePieces : blackPieces;
-                for(Piece bp : colorPieces.keySet()) {
-                        if(p.equals(bp)) {
-                                bp.setLocations(prevPo[1], cols[0]);
-                                bp.setCastlingRights(true);
-                                break;
-                        }
-                }
-                board[prevPo[1]][cols[1]] = null;
+                board[prevPo[1]][cols[0]].setLocations(prevPo[1], cols[0]);
+                setSquare(prevPo[1], cols[1], null);
         }
         
         
@@ -1135,13 +1300,13 @@ public class Board {
         
         
         /**
-         * Undos a move by initializing the board with the previous FEN
-         * Keeps a tab on the undid FEN by offering it to the redo Stack
+         * Undos a move and keeps a tab on the undid position by offering its FEN to the redo Stack.
+         * The FEN is only generated here, moves themselves do not record one
          */
         public void undoMoveWithFEN() {
-                if(undoFEN.size() > 1) {
-                        redoFEN.offer(undoFEN.removeLast());
-                        initializeWithFen(undoFEN.peekLast());
+                if(undoCount > 0) {
+                        redoFEN.offer(generateFEN());
+                        undoMove();
                 }
         }
         
@@ -1248,16 +1413,18 @@ public class Board {
          * @param type of piece to be created
          */
         public void setPiece(int[] targPo, char type) {
-                HashMap<Piece, List<int[]>> colorPieces;
-                if(!board[targPo[1]][targPo[0]].isWhite()) {
-                        colorPieces = blackPieces;
+                Piece old = board[targPo[1]][targPo[0]];
+                if(!old.isWhite()) {
                         type = Character.toLowerCase(type);
-                } else {
-                        colorPieces = whitePieces;
                 }
-                colorPieces.remove(board[targPo[1]][targPo[0]]);
-                board[targPo[1]][targPo[0]] = createPiece(type, targPo[1], targPo[0]);
-                colorPieces.put(board[targPo[1]][targPo[0]], new ArrayList<>());
+                // the new piece takes over the id of the piece it replaces
+                Piece p = createPiece(type, targPo[1], targPo[0]);
+                p.setId(old.getId());
+                pieceList[p.getId()] = p;
+                moveLists.get(p.getId()).clear();
+                setSquare(targPo[1], targPo[0], p);
+                movesGenerated = false;
+                attacksValid = 0;
         }
         
         
@@ -1287,7 +1454,101 @@ public class Board {
         }
         
         /**
-         * Gets undo FEN array deque
+         * Gets the Zobrist key of the position. Positions with the same pieces, side to move,
+         * castling rights and en passant file share a key
+         * @return 64-bit position key
+         */
+        public long hash() {
+                return hash;
+        }
+        
+        
+        /**
+         * Hashes the whole position from scratch. Used when a position is loaded, after which
+         * the key is kept up to date incrementally, and by Perft to check the incremental key
+         * @return Zobrist key of the position
+         */
+        long computeHash() {
+                long key = stateKey();
+                for(int i = 0; i < board.length; i++) {
+                        for(int j = 0; j < board[0].length; j++) {
+                                if(board[i][j] != null) {
+                                        key ^= zobristKey(board[i][j], i * 8 + j);
+                                }
+                        }
+                }
+                return key;
+        }
+        
+        
+        /**
+         * Gets the part of the Zobrist key that does not come from piece placement
+         * @return keys of the castling rights, en passant file and side to move
+         */
+        private long stateKey() {
+                long key = Zobrist.castling(castlingMask()) ^ Zobrist.enPassant(enPassant);
+                return whiteTurn ? key : key ^ Zobrist.side();
+        }
+        
+        
+        /**
+         * Gets the Zobrist key of a piece on a square
+         * @param p piece on the board
+         * @param sq row * 8 + col of the piece
+         * @return key of p on sq
+         */
+        private long zobristKey(Piece p, int sq) {
+                return Zobrist.piece(pieceCode(p), sq);
+        }
+        
+        
+        /**
+         * Gets the BitBoard piece code of a piece
+         * @param p piece on the board
+         * @return piece code, promoted pawns report their type as 'Q' so they are queens
+         */
+        private int pieceCode(Piece p) {
+                int code = PIECE_CODES.indexOf(p.getType());
+                return p.isWhite() ? code : code + BitBoard.BLACK_OFFSET;
+        }
+        
+        
+        /**
+         * Gets the castling rights of both sides as BitBoard castling bits. A side can castle
+         * towards a rook if its king and the rook in that corner have not moved
+         * @return castling right bits
+         */
+        private int castlingMask() {
+                int mask = 0;
+                if(whiteKing.getCastlingRights()) {
+                        mask |= canCastleWith(7, 7, true) ? BitBoard.WHITE_KINGSIDE : 0;
+                        mask |= canCastleWith(7, 0, true) ? BitBoard.WHITE_QUEENSIDE : 0;
+                }
+                if(blackKing.getCastlingRights()) {
+                        mask |= canCastleWith(0, 7, false) ? BitBoard.BLACK_KINGSIDE : 0;
+                        mask |= canCastleWith(0, 0, false) ? BitBoard.BLACK_QUEENSIDE : 0;
+                }
+                return mask;
+        }
+        
+        
+        /**
+         * Gets if a corner holds a rook that can still castle
+         * @param i row of the corner
+         * @param j column of the corner
+         * @param color color of the castling side
+         * @return true if board[i][j] is a rook of that color with castling rights
+         */
+        private boolean canCastleWith(int i, int j, boolean color) {
+                Piece p = board[i][j];
+                return p != null && p.isRook() && p.isWhite() == color && p.getCastlingRights();
+        }
+        
+        
+
+        /**
+         * Gets undo FEN array deque. It holds the starting position and the positions restored by
+         * redoMoveWithFEN, FENs are not recorded for every move
          * @return undoFEN
          */
         public ArrayDeque<String> getUndoFEN() {
@@ -1297,11 +1558,12 @@ public class Board {
         
         /**
          * Gets if there are moves available for the current player's turn. If
-         * moves available == 0, game is over
+         * moves available == 0, game is over. Uses the generated moves if there are any,
+         * otherwise only looks for a single legal move
          * @return true if there are moves available for the current player
          */
         public boolean movesAvailable() {
-                return movesAvailable;
+                return hasLegalMove();
         }
         
         
@@ -1309,12 +1571,11 @@ public class Board {
          * Clears the move list, removes any repeated moves
          */
         public void clearPieces() {
-                for(Piece p : blackPieces.keySet()) {
-                        blackPieces.get(p).clear();
-                }
-                for(Piece p : whitePieces.keySet()) {
-                        whitePieces.get(p).clear();
+                for(List<int[]> moves : moveLists) {
+                        moves.clear();
                 }
+                movesGenerated = false;
+                attacksValid = 0;
         }
         
         
@@ -1342,11 +1603,8 @@ public class Board {
                         }
                 }
                 int listCount = 0;
-                for(Piece p : whitePieces.keySet()) {
-                        if(!p.isCaptured()) listCount++;
-                }
-                for(Piece p : blackPieces.keySet()) {
-                        if(!p.isCaptured()) listCount++;
+                for(Piece p : pieceList) {
+                        if(p != null && !p.isCaptured()) listCount++;
                 }
                 if(counted != listCount) {
                         System.out.println("Listcount: " + listCount + " not equal to: " + counted);
@@ -1354,10 +1612,16 @@ public class Board {
         }
         
         /**
-         * For debugging purposes. Gets the captured pieces
+         * For debugging purposes. Gets the captured pieces in the order they were captured
          * @return captured
          */
         public ArrayDeque<Piece> getCaptured() {
+                ArrayDeque<Piece> captured = new ArrayDeque<>();
+                for(int record = 0; record < undoCount * RECORD_SIZE; record += RECORD_SIZE) {
+                        if(undoStack[record + CAPTURED] >= 0) {
+                                captured.offer(pieceList[(int) undoStack[record + CAPTURED]]);
+                        }
+                }
                 return captured;
         }
         
@@ -1368,13 +1632,8 @@ public class Board {
          */
         public ArrayDeque<Piece> actualCaptured() {
                 ArrayDeque<Piece> ad = new ArrayDeque<>();
-                for(Piece p : blackPieces.keySet()) {
-                        if(p.isCaptured()) {
-                                ad.offer(p);
-                        }
-                }
-                for(Piece p : whitePieces.keySet()) {
-                        if(p.isCaptured()) {
+                for(Piece p : pieceList) {
+                        if(p != null && p.isCaptured()) {
                                 ad.offer(p);
                         }
                 }
@@ -1386,9 +1645,12 @@ public class Board {
          * Queues redo pieces. Used only when redo button is clicked
          */
         public void queueRedo() {
-                // offer redo pieces
-                moveRedo.offer(new int[] {lastMoved.peekLast().getCol(), lastMoved.peekLast().getRow()});
-                lastMovedRedo.offer(lastMoved.peekLast());                
+                if(undoCount > 0) {
+                        // offer redo pieces, the last moved piece is still on the target square of the last move
+                        int to = Move.to((int) undoStack[(undoCount - 1) * RECORD_SIZE + MOVE]);
+                        moveRedo.offer(new int[] {to & 7, to >> 3});
+                        lastMovedRedo.offer(board[to >> 3][to & 7]);
+                }
         }
         
         
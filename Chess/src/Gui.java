@@ -27,6 +27,10 @@ import java.util.*;
 
 public class Gui extends JFrame {
     private final String COL_LETTERS = "ABCDEFGH";
+    // wall clock time the engine gets to evaluate a position, in milliseconds
+    private final long SEARCH_TIME_MS = 500;
+    // transposition table kept between moves, so the next search starts with what this one learned
+    private final TranspositionTable table = new TranspositionTable(Minimax.DEFAULT_TABLE_MB);
     // Gui which holds the board and toolbar
     private final JPanel mainGui = new JPanel(new BorderLayout(3, 3)); 
     private final Image[][] pieceIcons = new Image[2][6];
@@ -431,10 +435,10 @@ public class Gui extends JFrame {
      * @return the formatted evaluation of the board
      */
     private String getEval(Board b) {
-        Minimax mm = new Minimax(b);
-        double eval = mm.minimax(3, -Double.MAX_VALUE, Double.MAX_VALUE, b.whiteTurn());
-        b.clearPieces();
-        b.generateAllMoves();
+        // search a bit board copy of the position so the functional board is left untouched
+        Minimax mm = new Minimax(new BitBoard(b.generateFEN()), table);
+        // search as deep as the time budget allows instead of to a fixed depth
+        double eval = mm.iterativeDeepening(SEARCH_TIME_MS, Long.MAX_VALUE, Minimax.MAX_DEPTH).getSecond();
         System.out.println(b);
         return String.format("Evaluation: %.5f", eval);
     }
@@ -47,8 +47,7 @@ public class King extends Piece {
     }
     
     /**
-     * Gets the valid moveset for a King. Looks diagonally in four directions 
-     * and laterally in four directions
+     * Gets the valid moveset for a King. The eight squares around it come from the precomputed king table
      * @param b the functional Board the King is on
      * @param p King piece selected
      * @param i row of p
@@ -57,9 +56,9 @@ public class King extends Piece {
     @Override
     public List<int[]> getMoves(Board b, List<int[]> moves, Piece p, int i, int j) {
         if(correctTurn(b)) {
-            for(int k = 0; k < LATERAL_DIR.length - 1; k++) {
-                getDirMoves(b, moves, p, i + LATERAL_DIR[k], j + LATERAL_DIR[k + 1]);
-                getDirMoves(b, moves, p, i + DIAGONAL_DIR[k], j + DIAGONAL_DIR[k + 1]);
+            for(long targets = Attacks.kingAttacks(i * 8 + j); targets != 0; targets &= targets - 1) {
+                int sq = Long.numberOfTrailingZeros(targets);
+                getDirMoves(b, moves, p, sq >> 3, sq & 7);
             }
             if(castlingRights && b.isSafe(p.isWhite(), i, j)) {
                 if(p.isWhite()) {
@@ -138,8 +137,8 @@ public class King extends Piece {
      * @param j target column for King
      */
     public void getDirMoves(Board b, List<int[]> moves, Piece p, int i, int j) {
-        // can move king if inbounds AND the target square is empty or and enemy piece AND it is a safe square        
-        if(b.inBounds(i, j) && ((b.isEmpty(i, j) || !b.getPiece(i, j).getColor().equals(p.getColor()))
+        // can move king if the target square is empty or and enemy piece AND it is a safe square        
+        if(((b.isEmpty(i, j) || !b.getPiece(i, j).getColor().equals(p.getColor()))
                 && b.isSafe(this.isWhite(), i, j))) {
             moves.add(new int[] {i, j});
         }
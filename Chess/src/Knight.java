@@ -4,7 +4,6 @@
  * 6/12/2022
  */
 
-import java.util.HashSet;
 import java.util.List;
 
 public class Knight extends Piece {
@@ -40,8 +39,8 @@ public class Knight extends Piece {
 
     
     /**
-     * Get moves for a knight. Need to get the L shape, which is essentially moving in the lateral directions
-     * 2 times and then in the other direction once. 
+     * Get moves for a knight. The squares of its L shaped jumps come from the precomputed knight table,
+     * so each one is visited once and is always on the board
      * @param b Board with pieces
      * @param p current piece
      * @param i current piece row
@@ -50,15 +49,9 @@ public class Knight extends Piece {
     @Override
     public List<int[]> getMoves(Board b, List<int[]> moves, Piece p, int i, int j) {
         if(correctTurn(b) ) {
-            HashSet<int[]> temp = new HashSet<>();
-            for(int k = 0; k < LATERAL_DIR.length - 1; k++) {
-                getDirMoves(b, temp, p, i + (LATERAL_DIR[k] + LATERAL_DIR[k + 1]) * 2, j - 1);
-                getDirMoves(b, temp, p, i + (LATERAL_DIR[k] + LATERAL_DIR[k + 1]) * 2, j + 1);
-                getDirMoves(b, temp, p, i - 1, j + (LATERAL_DIR[k] + LATERAL_DIR[k + 1]) * 2);
-                getDirMoves(b, temp, p, i + 1, j + (LATERAL_DIR[k] + LATERAL_DIR[k + 1]) * 2);
-            }
-            for(int[] m : temp) {
-                moves.add(m);
+            for(long targets = Attacks.knightAttacks(i * 8 + j); targets != 0; targets &= targets - 1) {
+                int sq = Long.numberOfTrailingZeros(targets);
+                getDirMoves(b, moves, p, sq >> 3, sq & 7);
             }
         }
         return moves;
@@ -72,10 +65,9 @@ public class Knight extends Piece {
      * @param rowChange change in row from i
      * @param colChange change in columns from j
      */
-    public void getDirMoves(Board b, HashSet<int[]> moves, Piece p, int rowChange, int colChange) {
-        if(b.inBounds(rowChange, colChange) 
-                && (b.isEmpty(rowChange, colChange) || diffColor(b.getPiece(rowChange, colChange), p))
-                && b.kingSafeWithMove(p.isWhite(), p.getRow(), p.getCol(), rowChange, colChange)) {
+    public void getDirMoves(Board b, List<int[]> moves, Piece p, int rowChange, int colChange) {
+        if((b.isEmpty(rowChange, colChange) || diffColor(b.getPiece(rowChange, colChange), p))
+                && b.isLegalMove(p.getRow(), p.getCol(), rowChange, colChange)) {
             moves.add(new int[] {rowChange, colChange});
         }
     }
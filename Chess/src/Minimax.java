@@ -1,10 +1,67 @@
-import java.util.ArrayList;
-import java.util.Currency;
-import java.util.HashMap;
-import java.util.List;
-
 public class Minimax {
-    private Board b;
+    private BitBoard b;
+    // one move picker per ply of the search, created the first time the search reaches that ply
+    private final MovePicker[] pickers = new MovePicker[BitBoard.MAX_PLY];
+    private int ply;
+    // deepest iteration of iterative deepening, well below the bit board's MAX_PLY
+    public static final int MAX_DEPTH = 64;
+    // the clock is only read every CHECK_INTERVAL nodes, since reading it is slow compared to a node
+    private static final int CHECK_INTERVAL = 1024;
+    private long nodes;
+    private long nodeLimit = Long.MAX_VALUE;
+    private long deadline = Long.MAX_VALUE;
+    private boolean stopped;
+    // size of the transposition table a Minimax makes for itself, in MB
+    public static final int DEFAULT_TABLE_MB = 16;
+    private final TranspositionTable table;
+    // killer moves and history scores that order the quiet moves
+    private final MoveHistory history = new MoveHistory();
+    // most a capture of each piece type can raise the evaluation by, indexed by piece type.
+    // A pawn is worth up to 1.6 in pawnValues
+    private static final double[] CAPTURE_GAINS = {1.6, 3.0, 3.0, 5.0, 9.0, 0.0};
+    // what a queen promotion adds on top of the pawn it replaces
+    private static final double PROMOTION_GAIN = 8.0;
+    // room left for positional changes when delta pruning a capture
+    private static final double DELTA_MARGIN = 1.0;
+    // score of a mate on the board for the side giving it. A mate found ply plies from the root scores
+    // MATE_SCORE - ply, so a quicker mate is preferred and a mate that can not be avoided is put off
+    public static final double MATE_SCORE = 999;
+    // scores beyond this are mates, no line is longer than MAX_PLY plies
+    public static final double MATE_BOUND = MATE_SCORE - BitBoard.MAX_PLY;
+    // scores are sums of tenths of a pawn and the transposition table keeps thousandths,
+    // so a thousandth is the narrowest window that still tells two scores apart
+    private static final double NULL_WINDOW = 0.001;
+    // half width of the first window an iteration of iterative deepening searches, in pawns
+    private static final double ASPIRATION_WINDOW = 0.5;
+    // null moves are tried from this depth on, shallower nodes have too little left to reduce
+    private static final int NULL_MOVE_MIN_DEPTH = 3;
+    // deeper than this the null move search is reduced by 3 plies instead of 2
+    private static final int NULL_MOVE_DEEP = 6;
+    // a null move cutoff is only verified this deep, below it a mistaken cutoff costs little
+    private static final int VERIFY_MIN_DEPTH = 6;
+    private boolean verifyNullMoves = true;
+    // late quiet moves are only reduced from this depth on and after this many moves
+    private static final int LMR_MIN_DEPTH = 3;
+    private static final int LMR_MIN_MOVES = 3;
+    // plies a late move is reduced by, indexed by depth and move number. Reductions grow with the log of both
+    private static final int[][] REDUCTIONS = new int[MAX_DEPTH + 1][BitBoard.MAX_MOVES];
+    // up to this depth, quiet moves after the first 3 + depth * depth moves are not searched at all
+    private static final int MOVE_COUNT_MAX_DEPTH = 3;
+    // futility pruning and reverse futility pruning are used up to this depth, razoring up to RAZOR_MAX_DEPTH
+    private static final int FUTILITY_MAX_DEPTH = 3;
+    private static final int RAZOR_MAX_DEPTH = 2;
+    // margins in pawns per ply of remaining depth, see setPruningMargins
+    private double futilityMargin = 1.5;
+    private double reverseFutilityMargin = 1.2;
+    private double razorMargin = 2.0;
+
+    static {
+        for(int depth = 1; depth <= MAX_DEPTH; depth++) {
+            for(int moveCount = 1; moveCount < BitBoard.MAX_MOVES; moveCount++) {
+                REDUCTIONS[depth][moveCount] = (int) (0.75 + Math.log(depth) * Math.log(moveCount) / 2.25);
+            }
+        }
+    }
     private final double[][] pawnValues = {
         {0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0},
         {1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0, 1.0},            
@@ -105,18 +162,31 @@ public class Minimax {
     
     
     /**
-     * Minimax constructor that contains a reference to a functional board
-     * @param bCopy functional board reference
+     * Minimax constructor that contains a reference to a bit board. Moves are made and undone on it
+     * during the search, so the gui should hand over its own copy
+     * @param bCopy bit board reference
      */
-    public Minimax(Board bCopy) {
+    public Minimax(BitBoard bCopy) {
+        this(bCopy, new TranspositionTable(DEFAULT_TABLE_MB));
+    }
+    
+    
+    /**
+     * Minimax constructor that searches with a given transposition table, so what one search
+     * learned is kept for the next one
+     * @param bCopy bit board reference
+     * @param table transposition table to read and fill in
+     */
+    public Minimax(BitBoard bCopy, TranspositionTable table) {
         b = bCopy;
+        this.table = table;
     }
     
     
     /**
      * Minimax method that uses alpha-beta pruning to determine the optimal move for a player
-     * given a depth
-     * @param b functional chess board
+     * given a depth. The search itself is a negamax that scores positions for the side to move,
+     * so black's window and score are turned around here
      * @param depth how many moves deeper to look
      * @param alpha highest value found so far
      * @param beta lowest value found so far
@@ -124,136 +194,485 @@ public class Minimax {
      * @return optimal move for the maximizing or minimizing player
      */
     public double minimax(int depth, double alpha, double beta, boolean whiteTurn) {
-        if(!b.movesAvailable()) {
-            if(!b.inCheck(whiteTurn)) {
-                return 0;
+        return whiteTurn ? negamax(depth, alpha, beta, true) : -negamax(depth, -beta, -alpha, true);
+    }
+    
+    
+    /**
+     * Principal variation search with null move pruning, late move reductions and futility pruning near the
+     * leaves. Every score is from the side to move's point of view, so a child's score is negated
+     * @param depth how many moves deeper to look
+     * @param alpha score the side to move is already sure of
+     * @param beta score the opponent is already sure of, from the side to move's point of view
+     * @param allowNull false right after a null move, two passes in a row would only search the same position
+     * @return score of the position for the side to move
+     */
+    private double negamax(int depth, double alpha, double beta, boolean allowNull) {
+        // leaves are searched further until no capture is left, so they are not evaluated in the middle of a trade
+        if(depth == 0) {
+            return quiesce(alpha, beta);
+        }
+        if(outOfBudget()) {
+            // the value is thrown away, the iteration that ran out is not used
+            return 0;
+        }
+        // a position searched before at least as deep is answered from the table if its score is exact
+        // or its bound is outside the window. Otherwise its best move is still searched first
+        long key = b.hash();
+        long entry = table.probe(key);
+        int hashMove = TranspositionTable.move(entry);
+        if(entry != TranspositionTable.MISS && TranspositionTable.depth(entry) >= depth) {
+            double score = TranspositionTable.score(entry, ply);
+            int bound = TranspositionTable.bound(entry);
+            if(bound == TranspositionTable.EXACT || (bound == TranspositionTable.LOWER && score >= beta)
+                    || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                return score;
             }
-            return b.whiteTurn() ? -999 : 999;
-        } else if(depth == 0) {
-            return evaluatePosition();
-        }
-        // maximize score if white turn 
-        HashMap<Piece, List<int[]>> pieceListCopy = deepCopy(b.getPieceList(whiteTurn)); 
-        if(whiteTurn) {
-            double maxEval = -100000;
-            for(Piece p : pieceListCopy.keySet()) {
-                int[] prevPo = new int[] {p.getCol(), p.getRow()};
-                for(int[] moves : pieceListCopy.get(p)) {
-                    if(!p.isCaptured()) {
-                        int[] targPo = new int[] {moves[1], moves[0]};
-                        b.move(prevPo, targPo);
-                        double curEval = minimax(depth - 1, alpha, beta, !whiteTurn);
-                        b.undoMove();
-                        if(curEval > maxEval) {
-                            maxEval = curEval;
-                        }
-                        alpha = Math.max(alpha, curEval);
-                        if(beta <= alpha) {
-                            return alpha;
-                        }
-                    }
-                }
+        }
+        boolean inCheck = b.inCheck(b.whiteTurn());
+        // in check the evaluation says little, every evasion is searched
+        double staticEval = inCheck ? -MATE_SCORE : evaluate();
+        if(!inCheck && depth <= FUTILITY_MAX_DEPTH && beta < MATE_BOUND
+                && staticEval - reverseFutilityMargin * depth >= beta) {
+            return staticEval;
+        }
+        if(!inCheck && depth <= RAZOR_MAX_DEPTH && staticEval + razorMargin * depth <= alpha) {
+            double razorEval = quiesce(alpha, alpha + NULL_WINDOW);
+            if(razorEval <= alpha) {
+                return razorEval;
             }
-            return maxEval;
-        } else {
-            double minEval = 100000;
-            for(Piece p : pieceListCopy.keySet()) {
-                int[] prevPo = new int[] {p.getCol(), p.getRow()};
-                for(int[] moves : pieceListCopy.get(p)) {
-                    if(!p.isCaptured()) {
-                        int[] targPo = new int[] {moves[1], moves[0]};
-                        b.move(prevPo, targPo);
-                        double curEval = minimax(depth - 1, alpha, beta, !whiteTurn);
-                        b.undoMove();
-                        if(curEval < minEval) {
-                            minEval = curEval;
-                        }
-                        beta = Math.min(beta, curEval);
-                        if(beta <= alpha) {
-                            return beta;
-                        }
-                    }
-                }
+        }
+        boolean futile = !inCheck && depth <= FUTILITY_MAX_DEPTH && staticEval + futilityMargin * depth <= alpha;
+        if(allowNull && depth >= NULL_MOVE_MIN_DEPTH && beta < MATE_BOUND && !inCheck
+                && b.hasNonPawnMaterial(b.whiteTurn()) && staticEval >= beta) {
+            double nullEval = searchNullMove(depth, beta);
+            if(nullEval >= beta && !stopped) {
+                // a mate found after passing is not a real mate, so only beta is claimed
+                return nullEval >= MATE_BOUND ? beta : nullEval;
             }
-            return minEval;
         }
+        // moves are picked in stages, so the quiet moves are never generated if a capture cuts off.
+        // Nodes below this one use the pickers of deeper plies
+        MovePicker picker = picker();
+        picker.reset(hashMove, history.killer(ply, 0), history.killer(ply, 1), depth > 1);
+        double alphaOrig = alpha;
+        int bestMove = Move.NONE;
+        double bestEval = -100000;
+        int moveCount = 0;
+        for(int move = picker.next(); move != Move.NONE && !stopped; move = picker.next()) {
+            moveCount++;
+            boolean late = moveCount > 1 && !inCheck && !Move.isCapture(move) && !Move.isPromotion(move)
+                    && !b.givesCheck(move);
+            // a move that is not mated is needed first, so there is a score to fall back on
+            if(late && bestEval > -MATE_BOUND
+                    && (futile || (depth <= MOVE_COUNT_MAX_DEPTH && moveCount > 3 + depth * depth))) {
+                continue;
+            }
+            int reduction = 0;
+            if(late && depth >= LMR_MIN_DEPTH && moveCount > LMR_MIN_MOVES) {
+                // the reduced search still leaves at least one ply before quiescence search
+                reduction = Math.min(REDUCTIONS[depth][moveCount], depth - 2);
+            }
+            double curEval = searchMove(move, depth, alpha, beta, bestMove == Move.NONE, reduction);
+            if(bestMove == Move.NONE || curEval > bestEval) {
+                bestEval = curEval;
+                bestMove = move;
+            }
+            alpha = Math.max(alpha, curEval);
+            if(alpha >= beta) {
+                recordCutoff(move, depth);
+                break;
+            }
+        }
+        if(bestMove == Move.NONE) {
+            // no legal moves: checkmate or stalemate
+            return b.inCheck(b.whiteTurn()) ? ply - MATE_SCORE : 0;
+        }
+        if(!stopped) {
+            table.store(key, bestMove, depth, boundType(bestEval, alphaOrig, beta), bestEval, ply);
+        }
+        return bestEval;
     }
     
     
     /**
-     * Makes a deep copy of a hashmap of moves, which avoids concurrent modification
-     * @param copy map to copy
-     * @return a deep copy of 'copy'
+     * Searches the position after passing the turn, to see if it is good enough to cut off without searching
+     * a single move. The reduction R is adaptive: 3 plies deep in the tree, 2 near the leaves. In zugzwang
+     * passing is the best move and the cutoff is wrong, so deep cutoffs can be verified with a normal search
+     * of the node reduced by R, which still only cuts off if a real move holds beta
+     * @param depth remaining depth of the node
+     * @param beta score the opponent is already sure of, from the side to move's point of view
+     * @return score after the null move, at least beta if the node can be cut off
+     */
+    private double searchNullMove(int depth, double beta) {
+        int reduction = depth > NULL_MOVE_DEEP ? 3 : 2;
+        b.makeNullMove();
+        ply++;
+        double nullEval = -negamax(depth - 1 - reduction, -beta, -beta + NULL_WINDOW, false);
+        ply--;
+        b.undoMove();
+        if(nullEval >= beta && verifyNullMoves && depth >= VERIFY_MIN_DEPTH && !stopped) {
+            double verified = negamax(depth - reduction, beta - NULL_WINDOW, beta, false);
+            if(verified < beta) {
+                return verified;
+            }
+        }
+        return nullEval;
+    }
+
+
+    /**
+     * Sets if null move cutoffs deep in the tree are checked with a reduced search before they are trusted.
+     * The check costs some nodes but guards against zugzwang positions that still have pieces
+     * @param verify true to verify null move cutoffs
      */
-    private HashMap<Piece, List<int[]>> deepCopy(HashMap<Piece, List<int[]>> copy) {
-        HashMap<Piece, List<int[]>> deepCopy = new HashMap<>();
-        for(Piece p : copy.keySet()) {
-            List<int[]> copyList = new ArrayList<>();
-            for(int[] move : copy.get(p)) {
-                copyList.add(new int[] {move[0], move[1]});
+    public void setNullMoveVerification(boolean verify) {
+        verifyNullMoves = verify;
+    }
+
+
+    /**
+     * Sets the margins of the pruning done close to the leaves. Each is in pawns per ply of remaining depth.
+     * Larger margins prune less and miss less
+     * @param futility how far below alpha the evaluation has to be before late quiet moves are skipped
+     * @param reverseFutility how far above beta the evaluation has to be for the node to fail high
+     * @param razor how far below alpha the evaluation has to be for the node to be razored
+     */
+    public void setPruningMargins(double futility, double reverseFutility, double razor) {
+        if(!(futility >= 0 && reverseFutility >= 0 && razor >= 0)) {
+            throw new IllegalArgumentException("Pruning margins can not be negative: " + futility + ", "
+                    + reverseFutility + ", " + razor);
+        }
+        futilityMargin = futility;
+        reverseFutilityMargin = reverseFutility;
+        razorMargin = razor;
+    }
+
+
+    /**
+     * Quiescence search: searches only captures and queen promotions until the position is quiet, so a leaf
+     * is never scored with a piece hanging or halfway through a trade. The side to move may also stand pat,
+     * keep the static evaluation instead of capturing, so the evaluation is a lower bound of its score.
+     * Captures that can not bring the evaluation back to alpha even when they win the piece are skipped
+     * (delta pruning). In check there is no standing pat and every evasion is searched, and having none is mate.
+     * Stalemate is only looked for when the side to move has nothing but pawns and a king
+     * @param alpha score the side to move is already sure of
+     * @param beta score the opponent is already sure of, from the side to move's point of view
+     * @return score of the position for the side to move once it is quiet
+     */
+    private double quiesce(double alpha, double beta) {
+        if(outOfBudget()) {
+            return 0;
+        }
+        boolean inCheck = b.inCheck(b.whiteTurn());
+        if(ply >= pickers.length - 1) {
+            return evaluate();
+        }
+        double standPat = 0;
+        double bestEval = -100000;
+        if(!inCheck) {
+            // a full legality pass in every node is too slow, and a stalemate is only likely with pawns alone
+            if(!b.hasNonPawnMaterial(b.whiteTurn()) && !b.movesAvailable()) {
+                return 0;
+            }
+            standPat = evaluate();
+            bestEval = standPat;
+            if(standPat >= beta) {
+                return standPat;
+            }
+            alpha = Math.max(alpha, standPat);
+        }
+        MovePicker picker = picker();
+        picker.resetQuiescence();
+        boolean searched = false;
+        for(int move = picker.next(); move != Move.NONE && !stopped; move = picker.next()) {
+            if(!inCheck && standPat + captureGain(move) + DELTA_MARGIN <= alpha) {
+                continue;
             }
-            deepCopy.put(p, copyList);
+            searched = true;
+            b.move(move);
+            ply++;
+            double curEval = -quiesce(-beta, -alpha);
+            ply--;
+            b.undoMove();
+            bestEval = Math.max(bestEval, curEval);
+            alpha = Math.max(alpha, curEval);
+            if(alpha >= beta) {
+                break;
+            }
+        }
+        // in check the picker hands out every evasion, so finding none is checkmate
+        if(inCheck && !searched && !stopped) {
+            return ply - MATE_SCORE;
+        }
+        return bestEval;
+    }
+
+
+    /**
+     * Gets the most a capture or promotion can raise the evaluation by
+     * @param move encoded capture or promotion
+     * @return value of the captured piece plus what a promotion adds
+     */
+    private static double captureGain(int move) {
+        double gain = Move.isCapture(move) ? CAPTURE_GAINS[Move.captured(move) % BitBoard.BLACK_OFFSET] : 0;
+        return Move.isPromotion(move) ? gain + PROMOTION_GAIN : gain;
+    }
+
+
+    /**
+     * Gets the move picker of the current ply, creating it the first time the search reaches the ply
+     * @return move picker of the current ply
+     */
+    private MovePicker picker() {
+        if(pickers[ply] == null) {
+            pickers[ply] = new MovePicker(b, history);
+        }
+        return pickers[ply];
+    }
+
+
+    /**
+     * Remembers a move that refuted a position, so it is tried early in similar positions
+     * @param move encoded move that caused the cutoff
+     * @param depth remaining depth of the node
+     */
+    private void recordCutoff(int move, int depth) {
+        if(!Move.isCapture(move) && !stopped) {
+            history.cutoff(move, ply, depth);
         }
-        return deepCopy;
     }
     
     
     /**
-     * Static evaluation function that estimates the value of a board state 
-     * @return the sum of the values of each player's pieces
+     * Gets what a search result says about the value of a position
+     * @param eval value the search returned
+     * @param alpha alpha the node was searched with
+     * @param beta beta the node was searched with
+     * @return TranspositionTable.EXACT if eval is inside the window, otherwise the bound it is
      */
-    public double evaluatePosition() {
+    private static int boundType(double eval, double alpha, double beta) {
+        if(eval <= alpha) {
+            return TranspositionTable.UPPER;
+        }
+        if(eval >= beta) {
+            return TranspositionTable.LOWER;
+        }
+        return TranspositionTable.EXACT;
+    }
+    
+    
+    /**
+     * Searches depth 1, 2, 3... until the time or node budget runs out or maxDepth is reached, and returns
+     * the result of the deepest search that finished. The best move of each iteration is searched first
+     * in the next one, so a deeper search starts from the best line found so far. Depth 1 always finishes
+     * so there is a move even with a tiny budget. From depth 2 on, an iteration first searches a narrow
+     * aspiration window around the last score, since the score rarely moves far from one depth to the next.
+     * If the score falls outside it, the window is widened on that side and the iteration searched again
+     * @param timeMillis wall clock budget in milliseconds
+     * @param maxNodes node budget
+     * @param maxDepth deepest depth to search, at most MAX_DEPTH
+     * @return the best move (Move.NONE if there are no legal moves), its evaluation and the depth it came from
+     */
+    public Tuple<Integer, Double, Integer> iterativeDeepening(long timeMillis, long maxNodes, int maxDepth) {
+        if(timeMillis <= 0 || maxNodes <= 0 || maxDepth < 1 || maxDepth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Search budget is not valid: " + timeMillis + " ms, "
+                    + maxNodes + " nodes, depth " + maxDepth);
+        }
+        long start = System.currentTimeMillis();
+        table.newSearch();
+        history.newSearch();
+        nodes = 0;
+        stopped = false;
+        Tuple<Integer, Double, Integer> best = null;
+        int bestMove = Move.NONE;
         double score = 0;
-        HashMap<Piece, List<int[]>> whitePieces = b.getPieceList(true);
-        for(Piece p : whitePieces.keySet()) {
-            // add to position score for white pieces
-            if(!p.isCaptured()) {
-                score += getPieceValue(p);
-            } 
+        for(int depth = 1; depth <= maxDepth; depth++) {
+            // no limits for the first iteration
+            deadline = depth == 1 ? Long.MAX_VALUE : start + timeMillis;
+            nodeLimit = depth == 1 ? Long.MAX_VALUE : maxNodes;
+            // mate scores do not move by small steps, so they get the full window
+            boolean aspirate = depth > 1 && Math.abs(score) < MATE_BOUND;
+            double window = ASPIRATION_WINDOW;
+            double alpha = aspirate ? score - window : -Double.MAX_VALUE;
+            double beta = aspirate ? score + window : Double.MAX_VALUE;
+            Tuple<Integer, Double, Integer> result = searchRoot(depth, bestMove, alpha, beta);
+            while(!stopped && (result.getSecond() <= alpha || result.getSecond() >= beta)) {
+                window *= 2;
+                if(result.getSecond() <= alpha) {
+                    alpha = Math.max(result.getSecond() - window, -Double.MAX_VALUE);
+                } else {
+                    beta = Math.min(result.getSecond() + window, Double.MAX_VALUE);
+                    // the move that failed high is the best one found, so it goes first in the new search
+                    bestMove = result.getFirst();
+                }
+                result = searchRoot(depth, bestMove, alpha, beta);
+            }
+            if(stopped) {
+                break;
+            }
+            score = result.getSecond();
+            bestMove = result.getFirst();
+            // the root score is for the side to move, the evaluation is given from white's point of view.
+            // negamax can return a draw as -0.0, adding it to 0.0 or taking it from 0.0 gives 0.0 either way
+            best = new Tuple<>(bestMove, b.whiteTurn() ? score + 0.0 : 0.0 - score, depth);
+            if(bestMove == Move.NONE) {
+                // checkmate or stalemate, searching deeper gives the same answer
+                break;
+            }
         }
-        HashMap<Piece, List<int[]>> blackPieces = b.getPieceList(false);
-        for(Piece p : blackPieces.keySet()) {
-            if(!p.isCaptured()) {
-                score -= getPieceValue(p);
-            } 
+        deadline = Long.MAX_VALUE;
+        nodeLimit = Long.MAX_VALUE;
+        stopped = false;
+        return best;
+    }
+
+
+    /**
+     * Searches every root move to a depth and keeps the best one
+     * @param depth how many moves deeper to look
+     * @param firstMove move to search first, Move.NONE if there is none
+     * @param alpha lower end of the aspiration window
+     * @param beta upper end of the aspiration window
+     * @return the best move (Move.NONE if there are no legal moves), its score for the side to move and
+     * the depth. A score at or outside the window is only a bound
+     */
+    private Tuple<Integer, Double, Integer> searchRoot(int depth, int firstMove, double alpha, double beta) {
+        MovePicker picker = picker();
+        picker.reset(firstMove, history.killer(ply, 0), history.killer(ply, 1));
+        double alphaOrig = alpha;
+        int bestMove = Move.NONE;
+        double bestEval = -100000;
+        for(int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            double curEval = searchMove(move, depth, alpha, beta, bestMove == Move.NONE, 0);
+            if(stopped) {
+                break;
+            }
+            if(bestMove == Move.NONE || curEval > bestEval) {
+                bestEval = curEval;
+                bestMove = move;
+            }
+            alpha = Math.max(alpha, curEval);
+            if(alpha >= beta) {
+                break;
+            }
         }
-        return score;
+        if(bestMove == Move.NONE && !stopped) {
+            // no legal moves at the root
+            bestEval = b.inCheck(b.whiteTurn()) ? ply - MATE_SCORE : 0;
+        } else if(!stopped) {
+            table.store(b.hash(), bestMove, depth, boundType(bestEval, alphaOrig, beta), bestEval, ply);
+        }
+        return new Tuple<>(bestMove, bestEval, depth);
+    }
+
+
+    /**
+     * Counts a node and checks if the search has run out of time or nodes
+     * @return true if the search has to stop
+     */
+    private boolean outOfBudget() {
+        nodes++;
+        if(!stopped && (nodes >= nodeLimit
+                || (nodes % CHECK_INTERVAL == 0 && System.currentTimeMillis() >= deadline))) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+
+    /**
+     * Gets the number of nodes searched by the last search
+     * @return nodes searched
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+
+    /**
+     * Searches a move the principal variation way: the first move of a node with the full window,
+     * any other move with a null window first and with the full window only if it beats alpha.
+     * A reduced move that beats alpha is searched to the full depth before the window is opened
+     * @param move encoded move to play
+     * @param depth depth of the node the move is played from
+     * @param alpha score the side to move is already sure of
+     * @param beta score the opponent is already sure of, from the side to move's point of view
+     * @param first true if this is the first move searched at the node
+     * @param reduction plies taken off the null window search of the move
+     * @return score after the move for the side that played it
+     */
+    private double searchMove(int move, int depth, double alpha, double beta, boolean first, int reduction) {
+        b.move(move);
+        ply++;
+        double eval;
+        if(first) {
+            eval = -negamax(depth - 1, -beta, -alpha, true);
+        } else {
+            eval = -negamax(depth - 1 - reduction, -alpha - NULL_WINDOW, -alpha, true);
+            if(eval > alpha && reduction > 0 && !stopped) {
+                eval = -negamax(depth - 1, -alpha - NULL_WINDOW, -alpha, true);
+            }
+            if(eval > alpha && eval < beta && !stopped) {
+                eval = -negamax(depth - 1, -beta, -alpha, true);
+            }
+        }
+        ply--;
+        b.undoMove();
+        return eval;
     }
     
     
     /**
-     * Gets the piece value from a piece value table
-     * @param p piece whose value needs to be returned
-     * @return the value of the piece given its position on the board
+     * Gets the static evaluation for the side to move
+     * @return evaluatePosition() for white, its negation for black
      */
-    private double getPieceValue(Piece p) {
-        double[][] pieceTable = getPieceTable(p);
-        // get row and col of piece to find in piece table value
-        // reflect white piece coordinates row because piece tables are black-oriented
-        int row = p.isWhite() ? 8 - p.getRow() - 1 : p.getRow(); 
-        int col = p.getCol();
-        return pieceTable[row][col];
+    private double evaluate() {
+        return b.whiteTurn() ? evaluatePosition() : -evaluatePosition();
+    }
+    
+    
+    /**
+     * Static evaluation function that estimates the value of a board state 
+     * @return the sum of the values of each player's pieces
+     */
+    public double evaluatePosition() {
+        double score = 0;
+        for(int type = BitBoard.PAWN; type <= BitBoard.KING; type++) {
+            double[][] pieceTable = getPieceTable(type);
+            // add to position score for white pieces
+            // reflect white piece coordinates row because piece tables are black-oriented
+            for(long bb = b.getBitboard(type); bb != 0; bb &= bb - 1) {
+                int sq = Long.numberOfTrailingZeros(bb);
+                score += pieceTable[7 - (sq >> 3)][sq & 7];
+            }
+            for(long bb = b.getBitboard(type + BitBoard.BLACK_OFFSET); bb != 0; bb &= bb - 1) {
+                int sq = Long.numberOfTrailingZeros(bb);
+                score -= pieceTable[sq >> 3][sq & 7];
+            }
+        }
+        return score;
     }
     
     
     /**
      * Gets the corresponding piece table for a piece type
-     * @param p Piece that has its type
+     * @param type BitBoard piece type
      * @return a piece table for the corresponding piece type
      */
-    private double[][] getPieceTable(Piece p) {
-        switch(p.getType()) {
-        case 'P':
+    private double[][] getPieceTable(int type) {
+        switch(type) {
+        case BitBoard.PAWN:
             return pawnValues;
-        case 'B':
+        case BitBoard.BISHOP:
             return bishopValues;
-        case 'N':
+        case BitBoard.KNIGHT:
             return knightValues;
-        case 'R':
+        case BitBoard.ROOK:
             return rookValues;
-        case 'Q':
+        case BitBoard.QUEEN:
             return queenValues;
-        case 'K':
+        case BitBoard.KING:
             return kingValues;
         default:
             throw new IllegalArgumentException("Piece type is not valid");
@@ -0,0 +1,133 @@
+/**
+ * The Move class packs a chess move into a single int so move generation, make/unmake and the search
+ * can pass moves around without allocating. The layout of the 32-bit move is:
+ * bits 0-5 starting square, bits 6-11 target square, bits 12-14 promotion piece type (0 if none),
+ * bits 15-18 flags (capture, en passant, castle, double pawn push), bits 19-22 moving piece code
+ * and bits 23-26 captured piece code. Squares and piece codes follow BitBoard.
+ * @author Allen Jue
+ * 10/18/2026
+ */
+
+public class Move {
+    public static final int NONE = 0;
+    public static final int CAPTURE = 1 << 15;
+    public static final int EN_PASSANT = 1 << 16;
+    public static final int CASTLE = 1 << 17;
+    public static final int DOUBLE_PUSH = 1 << 18;
+    private static final int TO_SHIFT = 6;
+    private static final int PROMOTION_SHIFT = 12;
+    private static final int PIECE_SHIFT = 19;
+    private static final int CAPTURED_SHIFT = 23;
+    private static final String PROMOTION_CHARS = " nbrq";
+
+
+    /**
+     * Packs a move into an int
+     * @param from starting square
+     * @param to target square
+     * @param piece code of the moving piece
+     * @param captured code of the captured piece, BitBoard.EMPTY if none
+     * @param promotion piece type promoted to, 0 if none
+     * @param flags EN_PASSANT, CASTLE or DOUBLE_PUSH. CAPTURE is added if captured is a piece
+     * @return the encoded move
+     */
+    public static int encode(int from, int to, int piece, int captured, int promotion, int flags) {
+        int move = from | (to << TO_SHIFT) | (promotion << PROMOTION_SHIFT) | (piece << PIECE_SHIFT) | flags;
+        if(captured != BitBoard.EMPTY) {
+            move |= CAPTURE | (captured << CAPTURED_SHIFT);
+        }
+        return move;
+    }
+
+
+    /**
+     * Gets the starting square of a move
+     * @param move encoded move
+     * @return starting square
+     */
+    public static int from(int move) {
+        return move & 63;
+    }
+
+
+    /**
+     * Gets the target square of a move
+     * @param move encoded move
+     * @return target square
+     */
+    public static int to(int move) {
+        return (move >>> TO_SHIFT) & 63;
+    }
+
+
+    /**
+     * Gets the piece type a pawn promotes to
+     * @param move encoded move
+     * @return BitBoard piece type (KNIGHT to QUEEN), 0 if the move is not a promotion
+     */
+    public static int promotion(int move) {
+        return (move >>> PROMOTION_SHIFT) & 7;
+    }
+
+
+    /**
+     * Gets the code of the moving piece
+     * @param move encoded move
+     * @return BitBoard piece code
+     */
+    public static int piece(int move) {
+        return (move >>> PIECE_SHIFT) & 15;
+    }
+
+
+    /**
+     * Gets the code of the captured piece
+     * @param move encoded move
+     * @return BitBoard piece code, BitBoard.EMPTY if nothing is captured
+     */
+    public static int captured(int move) {
+        return isCapture(move) ? (move >>> CAPTURED_SHIFT) & 15 : BitBoard.EMPTY;
+    }
+
+
+    /**
+     * Gets if a move captures a piece (including en passant)
+     * @param move encoded move
+     * @return true if the move is a capture
+     */
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+
+    /**
+     * Gets if a move is a promotion
+     * @param move encoded move
+     * @return true if the move promotes a pawn
+     */
+    public static boolean isPromotion(int move) {
+        return promotion(move) != 0;
+    }
+
+
+    /**
+     * Gets if a move has a flag set
+     * @param move encoded move
+     * @param flag one of the flag constants
+     * @return true if the flag is set
+     */
+    public static boolean hasFlag(int move, int flag) {
+        return (move & flag) != 0;
+    }
+
+
+    /**
+     * Gets the coordinate notation of a move, e.g. "e2e4" or "e7e8q"
+     * @param move encoded move
+     * @return the move as a String
+     */
+    public static String toNotation(int move) {
+        String notation = BitBoard.processSquare(from(move)) + BitBoard.processSquare(to(move));
+        return isPromotion(move) ? notation + PROMOTION_CHARS.charAt(promotion(move)) : notation;
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * The MoveHistory class keeps what the search has learned about quiet moves, so the move picker can try the moves
+ * most likely to cause a cutoff first. Killer moves are the last two quiet moves that caused a beta cutoff at a ply:
+ * sibling positions are often refuted by the same move. The history table adds up, per moving piece and target
+ * square, how deep the cutoffs a quiet move caused were, and the rest of the quiet moves are sorted by it.
+ * @author Allen Jue
+ * 10/18/2026
+ */
+
+public class MoveHistory {
+    // history scores are halved once one of them passes this, so they stay far from overflowing
+    private static final int MAX_HISTORY = 1 << 20;
+    private final int[][] killers = new int[BitBoard.MAX_PLY][2];
+    // indexed by BitBoard piece code and target square
+    private final int[][] history = new int[BitBoard.BLACK_OFFSET * 2][64];
+
+
+    /**
+     * Gets a killer move of a ply
+     * @param ply distance from the root
+     * @param slot 0 for the newest killer, 1 for the older one
+     * @return encoded move, Move.NONE if there is none
+     */
+    public int killer(int ply, int slot) {
+        return killers[ply][slot];
+    }
+
+
+    /**
+     * Gets the history score of a quiet move
+     * @param move encoded move
+     * @return sum of the cutoff bonuses of the move's piece and target square
+     */
+    public int score(int move) {
+        return history[Move.piece(move)][Move.to(move)];
+    }
+
+
+    /**
+     * Records a quiet move that caused a beta cutoff. Captures are already ordered by what they capture,
+     * so they are not recorded
+     * @param move encoded quiet move
+     * @param ply distance from the root
+     * @param depth remaining depth of the node, deeper cutoffs save more and count more
+     */
+    public void cutoff(int move, int ply, int depth) {
+        if(killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] scores = history[Move.piece(move)];
+        scores[Move.to(move)] += depth * depth;
+        if(scores[Move.to(move)] > MAX_HISTORY) {
+            age();
+        }
+    }
+
+
+    /**
+     * Starts a new search. Killers belong to the positions of the last search and are dropped,
+     * the history is halved so it still counts but newer cutoffs weigh more
+     */
+    public void newSearch() {
+        for(int[] plyKillers : killers) {
+            plyKillers[0] = Move.NONE;
+            plyKillers[1] = Move.NONE;
+        }
+        age();
+    }
+
+
+    /**
+     * Halves every history score
+     */
+    private void age() {
+        for(int[] scores : history) {
+            for(int sq = 0; sq < scores.length; sq++) {
+                scores[sq] /= 2;
+            }
+        }
+    }
+}
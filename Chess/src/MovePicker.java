@@ -0,0 +1,293 @@
+/**
+ * The MovePicker class hands out the legal moves of a position one at a time, in the order the search
+ * should try them: the hash move, captures that win material or trade evenly, the killer moves, the quiet
+ * moves and last the captures that give up material. A stage is only generated once the stages before it
+ * are used up, so a node that cuts off on one of its first moves never pays for generating the quiet moves.
+ * Captures are tried most valuable victim first and, for the same victim, least valuable attacker first (MVV-LVA).
+ * Quiet moves are sorted by their history score, so moves that caused cutoffs elsewhere in the tree go first.
+ * When the side to move is in check every evasion is generated at once, since there are only a few.
+ * For quiescence search the picker only hands out captures and queen promotions, in MVV-LVA order.
+ * A picker belongs to one ply of the search and is reset for every node at that ply.
+ * @author Allen Jue
+ * 10/18/2026
+ */
+
+public class MovePicker {
+    private static final int HASH = 0;
+    private static final int GENERATE_CAPTURES = 1;
+    private static final int GOOD_CAPTURES = 2;
+    private static final int KILLERS = 3;
+    private static final int GENERATE_QUIETS = 4;
+    private static final int QUIETS = 5;
+    private static final int BAD_CAPTURES = 6;
+    private static final int GENERATE_EVASIONS = 7;
+    private static final int EVASIONS = 8;
+    private static final int GENERATE_TACTICAL = 9;
+    private static final int TACTICAL = 10;
+    private static final int DONE = 11;
+    // rough piece values, indexed by piece type, for telling losing captures apart
+    private static final int[] PIECE_VALUES = new int[] {1, 3, 3, 5, 9, 100};
+    private final BitBoard b;
+    private final MoveHistory history;
+    private final int[] moves = new int[BitBoard.MAX_MOVES];
+    // ordering score of each generated move, higher is tried first
+    private final int[] scores = new int[BitBoard.MAX_MOVES];
+    // captures that give up material are held back until the quiet moves have been tried
+    private final int[] badCaptures = new int[BitBoard.MAX_MOVES];
+    private final int[] killers = new int[2];
+    // squares the opponent attacks, a capture there can be answered by a recapture
+    private long defended;
+    private int hashMove;
+    private boolean sortQuiets;
+    private boolean quiescence;
+    private int stage;
+    private int index;
+    private int count;
+    private int badIndex;
+    private int badCount;
+    private int killerIndex;
+
+
+    /**
+     * Creates a move picker for the positions of a bit board. Quiet moves are left in generation order
+     * @param b bit board the moves are picked from
+     */
+    public MovePicker(BitBoard b) {
+        this(b, null);
+    }
+
+
+    /**
+     * Creates a move picker for the positions of a bit board that sorts quiet moves by a history table
+     * @param b bit board the moves are picked from
+     * @param history history of the search, null to leave quiet moves in generation order
+     */
+    public MovePicker(BitBoard b, MoveHistory history) {
+        this.b = b;
+        this.history = history;
+    }
+
+
+    /**
+     * Starts picking the moves of the bit board's current position
+     * @param hashMove best move stored for this position, Move.NONE if there is none
+     * @param killer1 first killer move of the ply, Move.NONE if there is none
+     * @param killer2 second killer move of the ply, Move.NONE if there is none
+     */
+    public void reset(int hashMove, int killer1, int killer2) {
+        reset(hashMove, killer1, killer2, true);
+    }
+
+
+    /**
+     * Starts picking the moves of the bit board's current position
+     * @param hashMove best move stored for this position, Move.NONE if there is none
+     * @param killer1 first killer move of the ply, Move.NONE if there is none
+     * @param killer2 second killer move of the ply, Move.NONE if there is none
+     * @param sortQuiets false to leave the quiet moves in generation order. When every child is a leaf
+     *        a late cutoff costs less than sorting, so nodes one move from the leaves skip the sort
+     */
+    public void reset(int hashMove, int killer1, int killer2, boolean sortQuiets) {
+        this.hashMove = hashMove;
+        this.sortQuiets = sortQuiets;
+        quiescence = false;
+        killers[0] = killer1;
+        killers[1] = killer2 == killer1 ? Move.NONE : killer2;
+        stage = HASH;
+        index = 0;
+        count = 0;
+        badIndex = 0;
+        badCount = 0;
+        killerIndex = 0;
+    }
+
+
+    /**
+     * Starts picking the captures and queen promotions of the bit board's current position for quiescence
+     * search. Losing captures are not held back, since they are the only other moves left. If the side to
+     * move is in check, every evasion is picked instead
+     */
+    public void resetQuiescence() {
+        reset(Move.NONE, Move.NONE, Move.NONE, false);
+        quiescence = true;
+    }
+
+
+    /**
+     * Gets the next move to search. Every legal move of the position is returned exactly once
+     * @return encoded move, Move.NONE once every move has been picked
+     */
+    public int next() {
+        while(true) {
+            switch(stage) {
+            case HASH:
+                if(b.inCheck(b.whiteTurn())) {
+                    stage = GENERATE_EVASIONS;
+                } else {
+                    stage = quiescence ? GENERATE_TACTICAL : GENERATE_CAPTURES;
+                }
+                // the hash move may come from a different position with the same key, so it is checked first
+                if(hashMove != Move.NONE && b.isLegalMove(hashMove)) {
+                    return hashMove;
+                }
+                hashMove = Move.NONE;
+                break;
+            case GENERATE_CAPTURES:
+                count = b.generateCaptures(moves);
+                defended = b.attackedBy(!b.whiteTurn());
+                for(int i = 0; i < count; i++) {
+                    scores[i] = mvvLva(moves[i]);
+                }
+                index = 0;
+                stage = GOOD_CAPTURES;
+                break;
+            case GOOD_CAPTURES:
+                while(index < count) {
+                    // most cutoffs come from the first capture or two, so only the next best one is selected
+                    selectBest();
+                    int move = moves[index++];
+                    if(move == hashMove) {
+                        continue;
+                    }
+                    if(isLosing(move)) {
+                        badCaptures[badCount++] = move;
+                        continue;
+                    }
+                    return move;
+                }
+                stage = KILLERS;
+                break;
+            case KILLERS:
+                while(killerIndex < killers.length) {
+                    int killer = killers[killerIndex++];
+                    // killers come from other positions at the same ply, so they are only tried if legal here
+                    if(killer != Move.NONE && killer != hashMove && !Move.isCapture(killer) && b.isLegalMove(killer)) {
+                        return killer;
+                    }
+                }
+                stage = GENERATE_QUIETS;
+                break;
+            case GENERATE_QUIETS:
+                count = b.generateQuiets(moves);
+                if(history != null && sortQuiets) {
+                    sortByHistory();
+                }
+                index = 0;
+                stage = QUIETS;
+                break;
+            case QUIETS:
+                while(index < count) {
+                    int move = moves[index++];
+                    if(move != hashMove && move != killers[0] && move != killers[1]) {
+                        return move;
+                    }
+                }
+                stage = BAD_CAPTURES;
+                break;
+            case BAD_CAPTURES:
+                if(badIndex < badCount) {
+                    return badCaptures[badIndex++];
+                }
+                stage = DONE;
+                break;
+            case GENERATE_TACTICAL:
+                count = b.generateTactical(moves);
+                for(int i = 0; i < count; i++) {
+                    scores[i] = mvvLva(moves[i]);
+                }
+                index = 0;
+                stage = TACTICAL;
+                break;
+            case TACTICAL:
+                if(index < count) {
+                    selectBest();
+                    return moves[index++];
+                }
+                stage = DONE;
+                break;
+            case GENERATE_EVASIONS:
+                count = b.generateLegalMoves(moves);
+                index = 0;
+                stage = EVASIONS;
+                break;
+            case EVASIONS:
+                while(index < count) {
+                    int move = moves[index++];
+                    if(move != hashMove) {
+                        return move;
+                    }
+                }
+                stage = DONE;
+                break;
+            default:
+                return Move.NONE;
+            }
+        }
+    }
+
+
+    /**
+     * Swaps the highest scored move left into the next position to pick
+     */
+    private void selectBest() {
+        int best = index;
+        for(int i = index + 1; i < count; i++) {
+            if(scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        int move = moves[best];
+        int score = scores[best];
+        moves[best] = moves[index];
+        scores[best] = scores[index];
+        moves[index] = move;
+        scores[index] = score;
+    }
+
+
+    /**
+     * Sorts the generated quiet moves by history score, highest first. Most nodes that get this far
+     * search every quiet move, so they are sorted all at once with an insertion sort
+     */
+    private void sortByHistory() {
+        for(int i = 0; i < count; i++) {
+            int move = moves[i];
+            int score = history.score(move);
+            int j = i - 1;
+            for(; j >= 0 && scores[j] < score; j--) {
+                moves[j + 1] = moves[j];
+                scores[j + 1] = scores[j];
+            }
+            moves[j + 1] = move;
+            scores[j + 1] = score;
+        }
+    }
+
+
+    /**
+     * Gets the MVV-LVA score of a capture: the captured piece counts most, and the capturing piece
+     * breaks ties with cheaper attackers first. A promotion counts as also capturing the promoted piece
+     * @param move encoded capture or promotion
+     * @return ordering score, higher is tried first
+     */
+    private static int mvvLva(int move) {
+        int attacker = Move.piece(move) % BitBoard.BLACK_OFFSET;
+        int victim = Move.captured(move) % BitBoard.BLACK_OFFSET;
+        return (victim + Move.promotion(move)) * 8 + BitBoard.KING - attacker;
+    }
+
+
+    /**
+     * Gets if a capture gives up material: the capturing piece is worth more than the captured piece and
+     * the opponent can recapture. A capture of an undefended piece wins it outright whatever captures it.
+     * The king can only capture undefended pieces, so it never loses material
+     * @param move encoded capture
+     * @return true if the capturing piece is worth more than the captured piece and the target is defended
+     */
+    private boolean isLosing(int move) {
+        int attacker = Move.piece(move) % BitBoard.BLACK_OFFSET;
+        int victim = Move.captured(move) % BitBoard.BLACK_OFFSET;
+        return attacker != BitBoard.KING && PIECE_VALUES[attacker] > PIECE_VALUES[victim]
+                && (defended & (1L << Move.to(move))) != 0;
+    }
+}
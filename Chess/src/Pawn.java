@@ -70,12 +70,12 @@ public class Pawn extends Piece {
                 // check if pawn is on it first rank and if moving two squares ahead is in bounds and not blocked
                 if((p.isWhite() && i == 6 || !p.isWhite() && i == 1) && b.inBounds(firstMove, j)  
                         && b.isEmpty(forwardMove, j) && b.isEmpty(firstMove, j)
-                        && b.kingSafeWithMove(isWhite(), p.getRow(), p.getCol(), firstMove, j)) {
+                        && b.isLegalMove(p.getRow(), p.getCol(), firstMove, j)) {
                     moves.add(new int[] {firstMove, j});
                 } 
                 
                 if(b.inBounds(forwardMove, j) && b.isEmpty(forwardMove, j)
-                        && b.kingSafeWithMove(isWhite(), p.getRow(), p.getCol(), forwardMove, j)) {
+                        && b.isLegalMove(p.getRow(), p.getCol(), forwardMove, j)) {
                     moves.add(new int[] {forwardMove, j});
                 }
                 // for left and right capture, check if inbounds, !empty, is a piece of the opposite color
@@ -131,7 +131,7 @@ public class Pawn extends Piece {
             if(b.inBounds(forwardMove, colChange) && !b.isEmpty(forwardMove, colChange)) {
                 Piece target = b.getPiece(forwardMove, colChange);
                 if(target.isWhite() != p.isWhite()
-                        && b.kingSafeWithMove(isWhite(), p.getRow(), p.getCol(), forwardMove, colChange)) { 
+                        && b.isLegalMove(p.getRow(), p.getCol(), forwardMove, colChange)) { 
                     moves.add(new int[] {forwardMove, colChange});
                 }
             }
@@ -0,0 +1,490 @@
+/**
+ * The Perft class is a command line tool that counts the leaf nodes of the move generation tree to a fixed
+ * depth. The counts of well known positions are published, so any difference points to a move generation
+ * bug, and the time taken measures the speed of making, unmaking and generating moves.
+ * Usage:
+ *   java Perft                     runs every reference position up to depth 4
+ *   java Perft suite [maxDepth]    runs every reference position up to maxDepth
+ *   java Perft depth [fen]         prints the node count below every root move (divide) of fen,
+ *                                  or of the starting position if no fen is given
+ *   java Perft parallel depth [splitDepth] [fen]
+ *                                  counts the nodes of fen with the subtrees below splitDepth (1 by default,
+ *                                  one task per root move) searched in parallel, each on its own bit board copy
+ *   java Perft hash depth [tableMB] [fen]
+ *                                  counts the nodes of fen with a table of subtree counts (16 MB by default)
+ *                                  and reports how often the table was hit
+ *   java Perft zobrist             plays lines through promotions on a Board and checks that its incremental
+ *                                  Zobrist key matches a key hashed from scratch after every move and undo
+ * @author Allen Jue
+ * 10/18/2026
+ */
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class Perft {
+    private static final int DEFAULT_SUITE_DEPTH = 4;
+    private static final int DEFAULT_SPLIT_DEPTH = 1;
+    private static final int DEFAULT_TABLE_MB = 16;
+    // reference positions and their node counts from depth 1 upwards
+    private static final String[] NAMES = new String[] {
+        "start", "kiwipete", "position 3", "position 4", "position 5", "position 6"
+    };
+    private static final String[] FENS = new String[] {
+        BitBoard.START_FEN,
+        "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+        "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+        "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+        "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10"
+    };
+    // lines of moves for the Zobrist check, ending in a pushed and a capturing promotion
+    private static final String[][] ZOBRIST_LINES = new String[][] {
+        {"a2a4", "b7b5", "a4b5", "a7a6", "b5a6", "c8b7", "a6b7", "b8c6", "b7b8"},
+        {"a2a4", "b7b5", "a4b5", "a7a6", "b5a6", "c8b7", "a6b7", "b8c6", "b7a8"}
+    };
+    private static final long[][] EXPECTED = new long[][] {
+        {20L, 400L, 8902L, 197281L, 4865609L, 119060324L},
+        {48L, 2039L, 97862L, 4085603L, 193690690L},
+        {14L, 191L, 2812L, 43238L, 674624L, 11030083L},
+        {6L, 264L, 9467L, 422333L, 15833292L},
+        {44L, 1486L, 62379L, 2103487L, 89941194L},
+        {46L, 2079L, 89890L, 3894594L, 164075551L}
+    };
+
+
+    /**
+     * Runs the reference suite, a divide or a parallel count, depending on the arguments
+     * @param args "suite [maxDepth]", "depth [fen]", "parallel depth [splitDepth] [fen]",
+     * "hash depth [tableMB] [fen]", "zobrist", or nothing for the suite to depth 4
+     */
+    public static void main(String[] args) {
+        // the magic attack tables are built the first time they are used, which should not be timed
+        Attacks.rookAttacks(0, 0L);
+        try {
+            if(args.length == 0) {
+                System.exit(runSuite(DEFAULT_SUITE_DEPTH) ? 0 : 1);
+            } else if(args[0].equals("suite")) {
+                System.exit(runSuite(args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SUITE_DEPTH) ? 0 : 1);
+            } else if(args[0].equals("zobrist")) {
+                System.exit(checkZobrist() ? 0 : 1);
+            } else if(args[0].equals("parallel")) {
+                if(args.length < 2) {
+                    throw new IllegalArgumentException("Missing depth");
+                }
+                int depth = Integer.parseInt(args[1]);
+                // the split depth is optional, so a third argument that is not a number starts the FEN
+                boolean hasSplit = args.length > 2 && args[2].matches("\\d+");
+                int splitDepth = hasSplit ? Integer.parseInt(args[2]) : DEFAULT_SPLIT_DEPTH;
+                parallel(new BitBoard(joinFen(args, hasSplit ? 3 : 2)), depth, splitDepth);
+            } else if(args[0].equals("hash")) {
+                if(args.length < 2) {
+                    throw new IllegalArgumentException("Missing depth");
+                }
+                int depth = Integer.parseInt(args[1]);
+                boolean hasSize = args.length > 2 && args[2].matches("\\d+");
+                int tableMB = hasSize ? Integer.parseInt(args[2]) : DEFAULT_TABLE_MB;
+                hashed(new BitBoard(joinFen(args, hasSize ? 3 : 2)), depth, tableMB);
+            } else {
+                divide(new BitBoard(joinFen(args, 1)), Integer.parseInt(args[0]));
+            }
+        } catch(IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("usage: java Perft [suite [maxDepth] | depth [fen] | parallel depth [splitDepth] [fen]"
+                    + " | hash depth [tableMB] [fen] | zobrist]");
+            System.exit(2);
+        }
+    }
+
+
+    /**
+     * Joins the arguments of a FEN back together, since the shell splits it at its spaces
+     * @param args command line arguments
+     * @param start index of the first argument of the FEN
+     * @return the FEN, or the starting position if there are no arguments left
+     */
+    private static String joinFen(String[] args, int start) {
+        if(start >= args.length) {
+            return BitBoard.START_FEN;
+        }
+        StringBuilder fen = new StringBuilder();
+        for(int i = start; i < args.length; i++) {
+            fen.append(args[i]).append(' ');
+        }
+        return fen.toString().trim();
+    }
+
+
+    /**
+     * Counts the leaf nodes of the move generation tree
+     * @param b bit board, left in the same position afterwards
+     * @param depth number of moves to play out
+     * @return number of positions depth moves from the current one
+     */
+    public static long perft(BitBoard b, int depth) {
+        if(depth == 0) {
+            return 1;
+        }
+        b.generateAllMoves();
+        // the buffer of this ply is not touched by the plies below it
+        int[] moves = b.getMoveBuffer();
+        int count = b.getMoveCount();
+        long nodes = 0;
+        for(int i = 0; i < count; i++) {
+            b.move(moves[i]);
+            nodes += perft(b, depth - 1);
+            b.undoMove();
+        }
+        return nodes;
+    }
+
+
+    /**
+     * Counts the leaf nodes with a table of subtree counts and prints the total, the speed and the table
+     * hit rate. Transpositions are only counted once, and the last move of every line is never made since
+     * the number of legal moves is already the number of leaves below it
+     * @param b bit board of the root position
+     * @param depth number of moves to play out
+     * @param tableMB size of the table in megabytes
+     * @return total number of leaf nodes
+     */
+    public static long hashed(BitBoard b, int depth, int tableMB) {
+        if(depth < 1 || tableMB < 1) {
+            throw new IllegalArgumentException("Depth and table size must be at least 1: " + depth + " " + tableMB);
+        }
+        PerftTable table = new PerftTable(tableMB);
+        long start = System.nanoTime();
+        long total = hashPerft(b, depth, table);
+        long elapsed = System.nanoTime() - start;
+        System.out.println("nodes: " + total);
+        System.out.println(timing(total, elapsed));
+        System.out.println("table: " + table.size() + " entries, " + table.hits + " hits of " + table.probes
+                + " probes (" + (table.probes == 0 ? 0 : table.hits * 100 / table.probes) + "%)");
+        return total;
+    }
+
+
+    /**
+     * Counts the leaf nodes of the move generation tree, looking subtrees up in a table first.
+     * At depth 1 the legal move count is returned without making the moves
+     * @param b bit board, left in the same position afterwards
+     * @param depth number of moves to play out
+     * @param table counts of the subtrees already searched
+     * @return number of positions depth moves from the current one
+     */
+    public static long hashPerft(BitBoard b, int depth, PerftTable table) {
+        if(depth == 0) {
+            return 1;
+        }
+        if(depth == 1) {
+            b.generateAllMoves();
+            return b.getMoveCount();
+        }
+        // a hit answers the whole subtree, so the moves are only generated on a miss
+        long cached = table.get(b.hash(), depth);
+        if(cached >= 0) {
+            return cached;
+        }
+        b.generateAllMoves();
+        int count = b.getMoveCount();
+        int[] moves = b.getMoveBuffer();
+        long nodes = 0;
+        for(int i = 0; i < count; i++) {
+            b.move(moves[i]);
+            nodes += hashPerft(b, depth - 1, table);
+            b.undoMove();
+        }
+        table.put(b.hash(), depth, nodes);
+        return nodes;
+    }
+
+
+    /**
+     * A fixed-size table of subtree counts, indexed by the low bits of a position's Zobrist key. Each
+     * entry keeps the full key and the depth next to the count, and a new entry always replaces the old one
+     */
+    public static class PerftTable {
+        // the depth is kept in the low byte of an entry and the count in the rest
+        private static final int DEPTH_BITS = 8;
+        private final long[] keys;
+        private final long[] entries;
+        private final int mask;
+        private long probes;
+        private long hits;
+
+
+        /**
+         * Creates an empty table
+         * @param megabytes size of the table, rounded down to a power of two number of entries
+         */
+        public PerftTable(int megabytes) {
+            // every entry is two longs
+            long entries = (long) megabytes * 1024 * 1024 / 16;
+            int size = Integer.highestOneBit((int) Math.min(entries, 1 << 30));
+            keys = new long[size];
+            this.entries = new long[size];
+            mask = size - 1;
+        }
+
+
+        /**
+         * Gets the stored count of a subtree
+         * @param key Zobrist key of the position
+         * @param depth depth of the subtree
+         * @return the leaf count, -1 if it is not in the table
+         */
+        public long get(long key, int depth) {
+            probes++;
+            int index = (int) key & mask;
+            long entry = entries[index];
+            if(keys[index] == key && (entry & ((1 << DEPTH_BITS) - 1)) == depth) {
+                hits++;
+                return entry >>> DEPTH_BITS;
+            }
+            return -1;
+        }
+
+
+        /**
+         * Stores the count of a subtree
+         * @param key Zobrist key of the position
+         * @param depth depth of the subtree
+         * @param nodes leaf count of the subtree
+         */
+        public void put(long key, int depth, long nodes) {
+            int index = (int) key & mask;
+            keys[index] = key;
+            entries[index] = (nodes << DEPTH_BITS) | depth;
+        }
+
+
+        /**
+         * Gets the number of entries in the table
+         * @return number of entries
+         */
+        public int size() {
+            return keys.length;
+        }
+    }
+
+
+    /**
+     * Prints the leaf node count below every root move, the total and the speed. Comparing the
+     * divide of a wrong count with another engine's narrows a bug down to a single move
+     * @param b bit board of the root position
+     * @param depth number of moves to play out
+     * @return total number of leaf nodes
+     */
+    public static long divide(BitBoard b, int depth) {
+        if(depth < 1) {
+            throw new IllegalArgumentException("Depth must be at least 1: " + depth);
+        }
+        long start = System.nanoTime();
+        b.generateAllMoves();
+        int[] moves = b.getMoveBuffer();
+        int count = b.getMoveCount();
+        long total = 0;
+        for(int i = 0; i < count; i++) {
+            b.move(moves[i]);
+            long nodes = perft(b, depth - 1);
+            b.undoMove();
+            System.out.println(Move.toNotation(moves[i]) + ": " + nodes);
+            total += nodes;
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.println();
+        System.out.println("moves: " + count);
+        System.out.println("nodes: " + total);
+        System.out.println(timing(total, elapsed));
+        return total;
+    }
+
+
+    /**
+     * Counts the leaf nodes with a fork join pool. Every position splitDepth moves from the root is searched by
+     * its own task on its own bit board copy, so the threads never share a board. Prints the total speed and
+     * the nodes and speed of every thread, which shows how well the per-thread copies scale
+     * @param b bit board of the root position
+     * @param depth number of moves to play out
+     * @param splitDepth number of moves played before the tree is handed to separate tasks
+     * @return total number of leaf nodes
+     */
+    public static long parallel(BitBoard b, int depth, int splitDepth) {
+        if(depth < 1 || splitDepth < 0) {
+            throw new IllegalArgumentException("Depth must be at least 1 and split depth at least 0: "
+                    + depth + " " + splitDepth);
+        }
+        ForkJoinPool pool = new ForkJoinPool();
+        // thread name -> {leaf nodes, nanoseconds spent counting them}
+        Map<String, long[]> threads = new ConcurrentHashMap<>();
+        long start = System.nanoTime();
+        long total = pool.invoke(new PerftTask(b, Move.NONE, depth, Math.min(splitDepth, depth), threads));
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+        for(Map.Entry<String, long[]> thread : threads.entrySet()) {
+            long[] stats = thread.getValue();
+            System.out.println(thread.getKey() + ": " + stats[0] + " nodes, " + timing(stats[0], stats[1]));
+        }
+        System.out.println();
+        System.out.println("threads: " + threads.size() + " of " + pool.getParallelism());
+        System.out.println("nodes: " + total);
+        System.out.println(timing(total, elapsed));
+        return total;
+    }
+
+
+    /**
+     * A task that counts the leaf nodes below a position. Above the split depth it forks a task for every
+     * move, and at the split depth it counts the subtree itself on a private copy of the board
+     */
+    private static class PerftTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+        private final BitBoard parent;
+        private final int move;
+        private final int depth;
+        private final int splitDepth;
+        private final Map<String, long[]> threads;
+
+
+        /**
+         * Creates a task for the position after a move
+         * @param parent bit board of the position before the move, only read by this task
+         * @param move encoded move to play on the copy, Move.NONE for the root
+         * @param depth number of moves to play out after move
+         * @param splitDepth number of moves still to play before counting sequentially
+         * @param threads per-thread statistics, updated when a subtree has been counted
+         */
+        PerftTask(BitBoard parent, int move, int depth, int splitDepth, Map<String, long[]> threads) {
+            this.parent = parent;
+            this.move = move;
+            this.depth = depth;
+            this.splitDepth = splitDepth;
+            this.threads = threads;
+        }
+
+
+        @Override
+        protected Long compute() {
+            // the copy is made by the task itself, so only the running tasks hold a board
+            BitBoard b = new BitBoard(parent);
+            if(move != Move.NONE) {
+                b.move(move);
+            }
+            if(splitDepth == 0) {
+                long start = System.nanoTime();
+                long nodes = perft(b, depth);
+                long elapsed = System.nanoTime() - start;
+                threads.compute(Thread.currentThread().getName(), (name, stats) -> {
+                    long[] updated = stats == null ? new long[2] : stats;
+                    updated[0] += nodes;
+                    updated[1] += elapsed;
+                    return updated;
+                });
+                return nodes;
+            }
+            b.generateAllMoves();
+            int count = b.getMoveCount();
+            PerftTask[] tasks = new PerftTask[count];
+            for(int i = 0; i < count; i++) {
+                tasks[i] = new PerftTask(b, b.getMoveBuffer()[i], depth - 1, splitDepth - 1, threads);
+                tasks[i].fork();
+            }
+            long nodes = 0;
+            for(PerftTask task : tasks) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+
+
+    /**
+     * Runs every reference position up to a maximum depth and compares the counts with the published ones
+     * @param maxDepth deepest depth to run, positions with fewer published counts stop earlier
+     * @return true if every count matched
+     */
+    public static boolean runSuite(int maxDepth) {
+        boolean passed = true;
+        long totalNodes = 0;
+        long totalTime = 0;
+        for(int p = 0; p < FENS.length; p++) {
+            BitBoard b = new BitBoard(FENS[p]);
+            for(int depth = 1; depth <= Math.min(maxDepth, EXPECTED[p].length); depth++) {
+                long start = System.nanoTime();
+                long nodes = perft(b, depth);
+                long elapsed = System.nanoTime() - start;
+                boolean match = nodes == EXPECTED[p][depth - 1];
+                passed &= match;
+                totalNodes += nodes;
+                totalTime += elapsed;
+                System.out.println((match ? "ok    " : "FAIL  ") + NAMES[p] + " depth " + depth + ": " + nodes
+                        + (match ? "" : " (expected " + EXPECTED[p][depth - 1] + ")") + ", " + timing(nodes, elapsed));
+            }
+        }
+        System.out.println((passed ? "all passed" : "some counts did not match") + ", " + timing(totalNodes, totalTime));
+        return passed;
+    }
+
+
+    /**
+     * Plays the Zobrist lines on a Board, then takes every move back, and compares the incremental key
+     * with one hashed from scratch after each move and each undo
+     * @return true if the keys matched everywhere
+     */
+    public static boolean checkZobrist() {
+        boolean passed = true;
+        for(String[] line : ZOBRIST_LINES) {
+            Board b = new Board();
+            for(String move : line) {
+                b.move(square(move.substring(0, 2)), square(move.substring(2, 4)));
+                passed &= checkKey(b, "after " + move);
+            }
+            for(int i = line.length - 1; i >= 0; i--) {
+                b.undoMove();
+                passed &= checkKey(b, "after undoing " + line[i]);
+            }
+        }
+        System.out.println(passed ? "all keys matched" : "some keys did not match");
+        return passed;
+    }
+
+
+    /**
+     * Compares the incremental key of a board with one hashed from scratch
+     * @param b board to check
+     * @param label where in the line the board is, for the report
+     * @return true if the keys matched
+     */
+    private static boolean checkKey(Board b, String label) {
+        boolean match = b.hash() == b.computeHash();
+        if(!match) {
+            System.out.println("FAIL  " + label + ": " + Long.toHexString(b.hash())
+                    + " (expected " + Long.toHexString(b.computeHash()) + ")");
+        }
+        return match;
+    }
+
+
+    /**
+     * Converts a square name to Board coordinates
+     * @param name square such as "e2"
+     * @return column and row of the square, row 0 being the eighth rank
+     */
+    private static int[] square(String name) {
+        return new int[] {name.charAt(0) - 'a', '8' - name.charAt(1)};
+    }
+
+
+    /**
+     * Formats the time taken and the nodes per second of a run
+     * @param nodes number of leaf nodes counted
+     * @param nanos time taken in nanoseconds
+     * @return "time: x ms, nps: y"
+     */
+    private static String timing(long nodes, long nanos) {
+        long nps = nanos == 0 ? 0 : nodes * 1000000000L / nanos;
+        return "time: " + nanos / 1000000 + " ms, nps: " + nps;
+    }
+}
@@ -20,6 +20,8 @@ public abstract class Piece {
     private final int INITIAL_C;
     private int r;
     private int c;
+    // index of the piece in its board's piece list, -1 until it is added to a board
+    private int id = -1;
     
     /**
      * Constructor for a general piece, with type pType in row
@@ -132,28 +134,25 @@ public abstract class Piece {
     
     
     /**
-     * Gets the valid moves along a specified direction given a piece and it position
-     * @param moves the collection of valid moves alonga specified diagonal
-     * @param rowChange direction the row is changing (down or up)
-     * @param colChange direction the column is changing (left or right)
+     * Gets the valid moves of a sliding piece given the squares it attacks. The attack set comes from
+     * the magic attack tables, so the first piece on each ray is already the last square included
+     * @param b functional board
+     * @param moves the collection of valid moves
+     * @param p piece selected
+     * @param attacks squares attacked by the piece
      * @param i starting row
      * @param j starting column
      */
-    public void getDirMoves(Board b, List<int[]> moves, Piece p, int rowChange, int colChange, int i, int j) {
-        int row = i + rowChange;
-        int col = j + colChange;
-        // search all moves in a given diagonal until off the board or a collision occurs
-        while(b.inBounds(row, col) && b.isEmpty(row, col)) {
-            if(b.kingSafeWithMove(p.isWhite(), i, j, row, col)) {
+    public void getAttackMoves(Board b, List<int[]> moves, Piece p, long attacks, int i, int j) {
+        for(; attacks != 0; attacks &= attacks - 1) {
+            int sq = Long.numberOfTrailingZeros(attacks);
+            int row = sq >> 3;
+            int col = sq & 7;
+            // empty squares can be moved to, and an opposite color piece can be captured
+            if((b.isEmpty(row, col) || b.getPiece(row, col).isWhite() != p.isWhite())
+                    && b.isLegalMove(i, j, row, col)) {
                 moves.add(new int[] {row, col});
             }
-            row += rowChange;
-            col += colChange;
-        }
-        // if meeting an opposite color piece, valid move is to capture
-        if(b.inBounds(row, col) && b.getPiece(row, col).isWhite() != b.getPiece(i, j).isWhite()
-                && b.kingSafeWithMove(p.isWhite(), i, j, row, col)) {
-            moves.add(new int[] {row, col});
         }
     }
     
@@ -385,6 +384,24 @@ public abstract class Piece {
     }
     
     
+    /**
+     * Gets the id of a piece in its board's piece list
+     * @return id
+     */
+    public int getId() {
+        return id;
+    }
+    
+    
+    /**
+     * Sets the id of a piece in its board's piece list
+     * @param id index in the piece list
+     */
+    public void setId(int id) {
+        this.id = id;
+    }
+    
+    
     /**
      * Gets the initial row of a piece
      * @return INITIAL_R
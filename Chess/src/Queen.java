@@ -46,10 +46,7 @@ public class Queen extends Piece {
     @Override
     public List<int[]> getMoves(Board b, List<int[]> moves, Piece p, int i, int j) {
         if(correctTurn(b)) {
-            for(int k = 0; k < DIAGONAL_DIR.length - 1; k++) {
-                getDirMoves(b, moves, p, DIAGONAL_DIR[k], DIAGONAL_DIR[k + 1], i, j);
-                getDirMoves(b, moves, p, LATERAL_DIR[k], LATERAL_DIR[k + 1], i, j);
-            }
+            getAttackMoves(b, moves, p, Attacks.queenAttacks(i * 8 + j, b.getOccupied()), i, j);
         }
         return moves;
     }
@@ -50,9 +50,7 @@ public class Rook extends Piece {
     @Override
     public List<int[]> getMoves(Board b, List<int[]> moves, Piece p, int i, int j) {
         if(correctTurn(b)) {
-            for(int k = 0; k < LATERAL_DIR.length - 1; k++) {
-                getDirMoves(b, moves, p, LATERAL_DIR[k], LATERAL_DIR[k + 1], i, j);
-            }
+            getAttackMoves(b, moves, p, Attacks.rookAttacks(i * 8 + j, b.getOccupied()), i, j);
         }
         return moves;
     }
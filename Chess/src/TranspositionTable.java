@@ -0,0 +1,185 @@
+/**
+ * The TranspositionTable class remembers the result of positions the search has already searched, so a position
+ * reached again through another move order is answered from the table instead of being searched again.
+ * Entries are grouped in buckets of two. The first slot keeps the deepest result and is only replaced by a search
+ * at least as deep or by an entry left over from an earlier search. The second slot always takes the newest result.
+ * Every slot is a pair of longs: the packed data and the position key XORed with the data. A slot is only used if
+ * XORing the pair gives back the key, so the table can be shared between threads without locks. A slot torn by
+ * two threads writing at once simply fails the check and reads as a miss.
+ * The data packs, from the low bits up: the best move (27 bits), the depth (7 bits), the bound (2 bits),
+ * the age of the search (4 bits) and the score in thousandths of a pawn (24 bits, signed).
+ * The search scores a mate by its distance from the root, but the same position can be reached at any ply,
+ * so mate scores are stored counted from the position itself and turned back when they are read.
+ * @author Allen Jue
+ * 10/18/2026
+ */
+
+import java.util.Arrays;
+
+public class TranspositionTable {
+    public static final int MISS = 0;
+    // the stored score is the exact value of the position
+    public static final int EXACT = 1;
+    // the stored score is a lower bound of the value, the search failed high
+    public static final int LOWER = 2;
+    // the stored score is an upper bound of the value, the search failed low
+    public static final int UPPER = 3;
+    private static final int MOVE_BITS = 27;
+    private static final int DEPTH_SHIFT = 27;
+    private static final int BOUND_SHIFT = 34;
+    private static final int AGE_SHIFT = 36;
+    private static final int SCORE_SHIFT = 40;
+    private static final int MAX_DEPTH = 127;
+    private static final int AGES = 16;
+    // scores are stored as whole thousandths of a pawn
+    private static final double SCORE_SCALE = 1000.0;
+    private static final long MAX_SCORE = (1L << 23) - 1;
+    // every bucket is two slots of two longs
+    private static final int BUCKET_LONGS = 4;
+    private final long[] slots;
+    private final int mask;
+    private volatile int age;
+
+
+    /**
+     * Creates an empty table
+     * @param megabytes size of the table, rounded down to a power of two number of buckets
+     */
+    public TranspositionTable(int megabytes) {
+        if(megabytes < 1) {
+            throw new IllegalArgumentException("Table size must be at least 1 MB: " + megabytes);
+        }
+        long buckets = (long) megabytes * 1024 * 1024 / (BUCKET_LONGS * 8);
+        int size = Integer.highestOneBit((int) Math.min(buckets, 1 << 28));
+        slots = new long[size * BUCKET_LONGS];
+        mask = size - 1;
+    }
+
+
+    /**
+     * Looks up a position
+     * @param key Zobrist key of the position
+     * @return packed data of the entry, MISS if the position is not in the table
+     */
+    public long probe(long key) {
+        int index = ((int) key & mask) * BUCKET_LONGS;
+        for(int slot = index; slot < index + BUCKET_LONGS; slot += 2) {
+            // read the data once, a second read could see another thread's write
+            long data = slots[slot + 1];
+            if((slots[slot] ^ data) == key && data != MISS) {
+                return data;
+            }
+        }
+        return MISS;
+    }
+
+
+    /**
+     * Stores the result of a search
+     * @param key Zobrist key of the position
+     * @param move best move found, Move.NONE if there is none
+     * @param depth depth the position was searched to
+     * @param bound EXACT, LOWER or UPPER
+     * @param score value of the position for the side to move
+     * @param ply distance of the position from the root
+     */
+    public void store(long key, int move, int depth, int bound, double score, int ply) {
+        // a mate ply plies from the root is ply plies closer to this position
+        if(score >= Minimax.MATE_BOUND) {
+            score += ply;
+        } else if(score <= -Minimax.MATE_BOUND) {
+            score -= ply;
+        }
+        long scaled = Math.round(score * SCORE_SCALE);
+        if(Math.abs(scaled) > MAX_SCORE || depth > MAX_DEPTH) {
+            // too large to pack, such a score never comes out of the evaluation
+            return;
+        }
+        int age = this.age;
+        long data = (move & ((1L << MOVE_BITS) - 1)) | ((long) depth << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT) | ((long) age << AGE_SHIFT) | (scaled << SCORE_SHIFT);
+        int slot = ((int) key & mask) * BUCKET_LONGS;
+        long deepData = slots[slot + 1];
+        // the always-replace slot is used unless the depth-preferred slot holds this position,
+        // something shallower or an entry from an earlier search
+        if((slots[slot] ^ deepData) != key && depth < depth(deepData) && age(deepData) == age) {
+            slot += 2;
+        }
+        slots[slot] = key ^ data;
+        slots[slot + 1] = data;
+    }
+
+
+    /**
+     * Starts a new search. Entries from earlier searches are kept, but are the first to be replaced
+     */
+    public void newSearch() {
+        age = (age + 1) % AGES;
+    }
+
+
+    /**
+     * Empties the table
+     */
+    public void clear() {
+        Arrays.fill(slots, 0L);
+    }
+
+
+    /**
+     * Gets the best move of an entry
+     * @param data packed entry
+     * @return encoded move, Move.NONE if there is none
+     */
+    public static int move(long data) {
+        return (int) (data & ((1L << MOVE_BITS) - 1));
+    }
+
+
+    /**
+     * Gets the depth of an entry
+     * @param data packed entry
+     * @return depth the position was searched to
+     */
+    public static int depth(long data) {
+        return (int) (data >>> DEPTH_SHIFT) & MAX_DEPTH;
+    }
+
+
+    /**
+     * Gets the bound of an entry
+     * @param data packed entry
+     * @return EXACT, LOWER or UPPER
+     */
+    public static int bound(long data) {
+        return (int) (data >>> BOUND_SHIFT) & 3;
+    }
+
+
+    /**
+     * Gets the score of an entry
+     * @param data packed entry
+     * @param ply distance of the position from the root of the search reading it
+     * @return value of the position for the side to move, mates counted from the root
+     */
+    public static double score(long data, int ply) {
+        // the arithmetic shift brings back the sign
+        double score = (data >> SCORE_SHIFT) / SCORE_SCALE;
+        if(score >= Minimax.MATE_BOUND) {
+            return score - ply;
+        } else if(score <= -Minimax.MATE_BOUND) {
+            return score + ply;
+        }
+        return score;
+    }
+
+
+    /**
+     * Gets the age of an entry
+     * @param data packed entry
+     * @return age of the search that stored it
+     */
+    private static int age(long data) {
+        return (int) (data >>> AGE_SHIFT) & (AGES - 1);
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * The Zobrist class holds the random keys used to hash a position into a single 64-bit number.
+ * A position's key is the XOR of one key per piece on a square, plus keys for the side to move,
+ * the castling rights and the en passant file. Since XOR undoes itself, Board and BitBoard can keep
+ * the key up to date by toggling only the keys a move changes, instead of hashing the whole position.
+ * Piece codes and squares follow BitBoard.
+ * @author Allen Jue
+ * 10/18/2026
+ */
+
+import java.util.Random;
+
+public class Zobrist {
+    private static final long[][] PIECE_KEYS = new long[12][64];
+    private static final long[] CASTLING_KEYS = new long[16];
+    private static final long[] EN_PASSANT_KEYS = new long[8];
+    private static final long SIDE_KEY;
+    // fixed seed so a position hashes to the same key on every run
+    private static final long ZOBRIST_SEED = 0x5D1C3A9E7F2B4861L;
+
+    static {
+        Random random = new Random(ZOBRIST_SEED);
+        for(int piece = 0; piece < PIECE_KEYS.length; piece++) {
+            for(int sq = 0; sq < 64; sq++) {
+                PIECE_KEYS[piece][sq] = random.nextLong();
+            }
+        }
+        // no castling rights hashes to 0 so a position without any rights needs no key
+        for(int mask = 1; mask < CASTLING_KEYS.length; mask++) {
+            CASTLING_KEYS[mask] = random.nextLong();
+        }
+        for(int file = 0; file < EN_PASSANT_KEYS.length; file++) {
+            EN_PASSANT_KEYS[file] = random.nextLong();
+        }
+        SIDE_KEY = random.nextLong();
+    }
+
+
+    /**
+     * Gets the key of a piece on a square
+     * @param piece BitBoard piece code
+     * @param sq square index
+     * @return key of the piece on sq
+     */
+    public static long piece(int piece, int sq) {
+        return PIECE_KEYS[piece][sq];
+    }
+
+
+    /**
+     * Gets the key of a set of castling rights
+     * @param mask castling right bits, as in BitBoard
+     * @return key of the castling rights, 0 if there are none
+     */
+    public static long castling(int mask) {
+        return CASTLING_KEYS[mask];
+    }
+
+
+    /**
+     * Gets the key of an en passant square. Only the file of the square is hashed
+     * @param sq en passant square, BitBoard.EMPTY if there is none
+     * @return key of the en passant file, 0 if there is no en passant square
+     */
+    public static long enPassant(int sq) {
+        return sq == BitBoard.EMPTY ? 0L : EN_PASSANT_KEYS[sq & 7];
+    }
+
+
+    /**
+     * Gets the key toggled whenever the side to move changes
+     * @return side to move key
+     */
+    public static long side() {
+        return SIDE_KEY;
+    }
+}